@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Measures the time from JVM launch until /api/rewards serves its first successful response.
+# Usage: scripts/time-to-first-request.sh [runs] -- <java arguments...>
+# Example: scripts/time-to-first-request.sh 5 -- -Dspring.profiles.active=faststart -jar target/app.jar
+set -euo pipefail
+
+runs=${1:-5}
+shift
+[ "${1:-}" = "--" ] && shift
+
+port=${PORT:-18080}
+url="http://localhost:${port}/api/rewards/calculate"
+body='[{"id":1,"date":"2024-01-10","amount":120.0,"customer":{"id":1,"name":"Alice","email":"alice@example.com"}}]'
+
+total=0
+for run in $(seq 1 "$runs"); do
+    start=$(date +%s%N)
+    java -Dserver.port="$port" "$@" > /dev/null 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null -H 'Content-Type: application/json' -d "$body" "$url"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited before serving a request" >&2
+            exit 1
+        fi
+        sleep 0.01
+    done
+    elapsed=$(( ($(date +%s%N) - start) / 1000000 ))
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo "run ${run}: ${elapsed} ms"
+    total=$((total + elapsed))
+done
+echo "mean: $((total / runs)) ms"
@@ -0,0 +1,144 @@
+package com.example.customerrewardssystem.aggregate;
+
+import java.time.LocalDate;
+
+/**
+ * Per-customer daily reward points held in two Fenwick trees, one for points and one for transaction counts.
+ * Adding a transaction and summing any date range both take O(log days), regardless of how many
+ * transactions the customer has. Days may be added in any order; the covered day span grows as needed.
+ * Not thread-safe; callers synchronize on the instance.
+ */
+public class DailyPointsIndex {
+    private static final int MIN_CAPACITY = 64;
+
+    private long baseDay;
+    private long[] pointsTree = new long[0];
+    private long[] countTree = new long[0];
+
+    /**
+     * Records one transaction's points on the given day.
+     */
+    public void add(LocalDate date, int points) {
+        long day = date.toEpochDay();
+        ensureCovers(day);
+        int slot = (int) (day - baseDay) + 1;
+        update(pointsTree, slot, points);
+        update(countTree, slot, 1);
+    }
+
+    /**
+     * Sum of points for transactions dated within [startDate, endDate], inclusive.
+     */
+    public long points(LocalDate startDate, LocalDate endDate) {
+        return rangeSum(pointsTree, startDate, endDate);
+    }
+
+    /**
+     * Number of transactions dated within [startDate, endDate], inclusive.
+     */
+    public long count(LocalDate startDate, LocalDate endDate) {
+        return rangeSum(countTree, startDate, endDate);
+    }
+
+    public boolean isEmpty() {
+        return pointsTree.length == 0;
+    }
+
+    /**
+     * Heap held by the two trees: 16 bytes per covered day, where the covered span is the customer's
+     * first to last transaction day rounded up to a power of two of at least MIN_CAPACITY days.
+     */
+    public long sizeInBytes() {
+        return (long) (pointsTree.length + countTree.length) * Long.BYTES;
+    }
+
+    /**
+     * First day covered by the index. Days before it have no transactions.
+     */
+    public LocalDate firstDay() {
+        return LocalDate.ofEpochDay(baseDay);
+    }
+
+    /**
+     * Last day covered by the index. Days after it have no transactions.
+     */
+    public LocalDate lastDay() {
+        return LocalDate.ofEpochDay(baseDay + capacity() - 1);
+    }
+
+    private int capacity() {
+        return Math.max(pointsTree.length - 1, 0);
+    }
+
+    private long rangeSum(long[] tree, LocalDate startDate, LocalDate endDate) {
+        if (isEmpty() || endDate.isBefore(startDate)) {
+            return 0;
+        }
+        long from = Math.max(startDate.toEpochDay() - baseDay, 0);
+        long to = Math.min(endDate.toEpochDay() - baseDay, capacity() - 1);
+        if (from > to) {
+            return 0;
+        }
+        return prefixSum(tree, (int) to + 1) - prefixSum(tree, (int) from);
+    }
+
+    // Grows the covered span to include the day, re-basing when an older day arrives.
+    private void ensureCovers(long day) {
+        if (isEmpty()) {
+            baseDay = day;
+            pointsTree = new long[MIN_CAPACITY + 1];
+            countTree = new long[MIN_CAPACITY + 1];
+            return;
+        }
+        long lastDay = baseDay + capacity() - 1;
+        if (day >= baseDay && day <= lastDay) {
+            return;
+        }
+        long newBase = Math.min(day, baseDay);
+        long newLast = Math.max(day, lastDay);
+        int newCapacity = capacity();
+        while (newCapacity < newLast - newBase + 1) {
+            newCapacity *= 2;
+        }
+        // Leave headroom on the side that grew, so consecutive inserts in that direction do not rebuild each time.
+        if (day < baseDay) {
+            newBase = newLast - newCapacity + 1;
+        }
+        int offset = (int) (baseDay - newBase);
+        pointsTree = rebuild(pointsTree, offset, newCapacity);
+        countTree = rebuild(countTree, offset, newCapacity);
+        baseDay = newBase;
+    }
+
+    private static long[] rebuild(long[] tree, int offset, int newCapacity) {
+        long[] rebuilt = new long[newCapacity + 1];
+        long previous = 0;
+        for (int slot = 1; slot < tree.length; slot++) {
+            long prefix = prefixSum(tree, slot);
+            rebuilt[slot + offset] = prefix - previous;
+            previous = prefix;
+        }
+        // Linear-time Fenwick construction from the daily values.
+        for (int slot = 1; slot <= newCapacity; slot++) {
+            int parent = slot + (slot & -slot);
+            if (parent <= newCapacity) {
+                rebuilt[parent] += rebuilt[slot];
+            }
+        }
+        return rebuilt;
+    }
+
+    private static void update(long[] tree, int slot, long delta) {
+        for (int i = slot; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    private static long prefixSum(long[] tree, int slot) {
+        long sum = 0;
+        for (int i = slot; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
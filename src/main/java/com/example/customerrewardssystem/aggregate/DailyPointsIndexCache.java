@@ -0,0 +1,173 @@
+package com.example.customerrewardssystem.aggregate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Least-recently-used cache of DailyPointsIndex instances keyed by customer id, bounded by the heap the indexes hold
+ * rather than by customer count, since an index grows with the span of the customer's history.
+ * An index is built from the database on first use. A new transaction is added to the cached index; any other write
+ * drops it, to be rebuilt on next use.
+ * An index larger than the whole budget is returned to the caller but not cached.
+ * Only writes in this JVM reach the cache, so an index older than the configured max age is rebuilt as well, which
+ * bounds how long writes from other instances or made directly in the database stay unseen.
+ */
+@Component
+public class DailyPointsIndexCache {
+    private static final int MODIFICATION_STRIPES = 1024;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    // In access order, guarded by itself together with bytes.
+    private final Map<Long, Entry> indexes = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    // Changes per stripe of customers, so an index built while a write for its customer was in flight is not cached,
+    // while writes for other customers leave the build alone.
+    private final AtomicLongArray modifications = new AtomicLongArray(MODIFICATION_STRIPES);
+    // Writes per stripe between beginWrite and add or endWrite. An index built while one is open may or may not
+    // include it, so it is not cached; that way a cached index is known not to hold the transaction add brings.
+    private final AtomicIntegerArray openWrites = new AtomicIntegerArray(MODIFICATION_STRIPES);
+
+    @Autowired
+    public DailyPointsIndexCache(@Value("${rewards.index.enabled:true}") boolean enabled,
+                                 @Value("${rewards.index.max-bytes:67108864}") long maxBytes,
+                                 @Value("${rewards.index.max-age:5m}") Duration maxAge) {
+        this(enabled, maxBytes, maxAge, System::nanoTime);
+    }
+
+    DailyPointsIndexCache(boolean enabled, long maxBytes, Duration maxAge, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    // A cached index and the nanoClock reading when it was built.
+    private record Entry(DailyPointsIndex index, long loadedAt) {
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the customer's index, building it with the loader if it is not cached.
+     */
+    public DailyPointsIndex getOrLoad(Long customerId, Supplier<DailyPointsIndex> loader) {
+        synchronized (indexes) {
+            Entry entry = indexes.get(customerId);
+            if (entry != null) {
+                if (nanoClock.getAsLong() - entry.loadedAt() <= maxAgeNanos) {
+                    return entry.index();
+                }
+                indexes.remove(customerId);
+                bytes -= entry.index().sizeInBytes();
+            }
+        }
+        int stripe = stripeOf(customerId);
+        long modificationsBefore = modifications.get(stripe);
+        boolean writing = openWrites.get(stripe) > 0;
+        long loadedAt = nanoClock.getAsLong();
+        DailyPointsIndex loaded = loader.get();
+        synchronized (indexes) {
+            if (!writing && modifications.get(stripe) == modificationsBefore && loaded.sizeInBytes() <= maxBytes) {
+                Entry existing = indexes.putIfAbsent(customerId, new Entry(loaded, loadedAt));
+                if (existing != null) {
+                    return existing.index();
+                }
+                bytes += loaded.sizeInBytes();
+                evictEldest();
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Starts a new transaction for the customer that readers cannot see yet, such as an uncommitted insert.
+     * Must be followed by add once it is visible, or by endWrite if it never becomes visible.
+     */
+    public void beginWrite(Long customerId) {
+        int stripe = stripeOf(customerId);
+        openWrites.incrementAndGet(stripe);
+        modifications.incrementAndGet(stripe);
+    }
+
+    /**
+     * Finishes a write started with beginWrite by adding the transaction's points to the customer's cached index,
+     * if there is one.
+     */
+    public void add(Long customerId, LocalDate date, int points) {
+        try {
+            synchronized (indexes) {
+                Entry entry = indexes.get(customerId);
+                if (entry != null) {
+                    DailyPointsIndex index = entry.index();
+                    bytes -= index.sizeInBytes();
+                    synchronized (index) {
+                        index.add(date, points);
+                    }
+                    bytes += index.sizeInBytes();
+                    evictEldest();
+                }
+            }
+        } finally {
+            endWrite(customerId);
+        }
+    }
+
+    /**
+     * Finishes a write started with beginWrite without changing the index, as when it was rolled back.
+     */
+    public void endWrite(Long customerId) {
+        openWrites.decrementAndGet(stripeOf(customerId));
+    }
+
+    /**
+     * Drops the customer's index; it is rebuilt on next use.
+     */
+    public void evict(Long customerId) {
+        modifications.incrementAndGet(stripeOf(customerId));
+        synchronized (indexes) {
+            Entry removed = indexes.remove(customerId);
+            if (removed != null) {
+                bytes -= removed.index().sizeInBytes();
+            }
+        }
+    }
+
+    /**
+     * Heap held by the cached indexes.
+     */
+    public long getBytes() {
+        synchronized (indexes) {
+            return bytes;
+        }
+    }
+
+    // Drops least recently used indexes until the cache is back within its budget.
+    private void evictEldest() {
+        Iterator<Entry> eldest = indexes.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= eldest.next().index().sizeInBytes();
+            eldest.remove();
+        }
+    }
+
+    private static int stripeOf(Long customerId) {
+        long hash = customerId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (MODIFICATION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,304 @@
+package com.example.customerrewardssystem.aggregate;
+
+import com.example.customerrewardssystem.model.MonthlyReward;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Off-heap store of per-customer monthly reward points, kept out of the Java heap so that caching
+ * millions of customers does not add to GC work.
+ *
+ * Records are fixed width and live in direct ByteBuffers, organised as a set-associative table:
+ * a customer id hashes to a bucket of WAYS records, and a full bucket evicts its least recently used record.
+ * Each record covers a window of up to MONTHS consecutive months. Customers whose history is wider than that
+ * are remembered as TOO_WIDE so callers go straight to the database instead of rehydrating again.
+ *
+ * Writes in this JVM drop the customer's record through evict. Writes made elsewhere are not seen, so a record is
+ * also treated as a miss once it is older than the configured max age, which bounds how stale a read can be.
+ */
+@Component
+public class OffHeapRewardsStore {
+    public enum Lookup {
+        HIT,
+        MISS,
+        TOO_WIDE
+    }
+
+    static final int MONTHS = 60;
+    private static final int WAYS = 8;
+
+    // Record layout
+    private static final int CUSTOMER_ID = 0;        // long
+    private static final int LAST_ACCESS = 8;        // long, 0 marks an empty record
+    private static final int FIRST_MONTH = 16;       // int, months since year 0
+    private static final int STATE = 20;             // int, STATE_WINDOW or STATE_TOO_WIDE
+    private static final int MONTH_MASK = 24;        // long, bit i set when month FIRST_MONTH + i has transactions
+    private static final int LOADED_AT = 32;         // long, nanoClock reading when the record was rehydrated
+    private static final int POINTS = 40;            // int[MONTHS]
+    static final int RECORD_SIZE = POINTS + MONTHS * Integer.BYTES;
+
+    private static final int STATE_WINDOW = 0;
+    private static final int STATE_TOO_WIDE = 1;
+
+    private static final int RECORDS_PER_SEGMENT = 1 << 20;
+
+    private final boolean enabled;
+    private final long maxAgeNanos;
+    private final LongSupplier nanoClock;
+    private final int bucketMask;
+    private final ByteBuffer[] segments;
+    private final Object[] bucketLocks;
+    // Changes per lock stripe, so a record rehydrated while a write for its customer was in flight is not stored,
+    // while writes for customers in other stripes leave the rehydration alone.
+    private final AtomicLongArray modifications;
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public OffHeapRewardsStore(@Value("${rewards.offheap.enabled:true}") boolean enabled,
+                               @Value("${rewards.offheap.max-customers:65536}") int maxCustomers,
+                               @Value("${rewards.offheap.max-age:5m}") Duration maxAge) {
+        this(enabled, maxCustomers, maxAge, System::nanoTime);
+    }
+
+    OffHeapRewardsStore(boolean enabled, int maxCustomers, Duration maxAge, LongSupplier nanoClock) {
+        this.enabled = enabled;
+        this.maxAgeNanos = maxAge.toNanos();
+        this.nanoClock = nanoClock;
+        int buckets = enabled ? Integer.highestOneBit(Math.max(maxCustomers / WAYS, 1)) : 1;
+        if (enabled && buckets * WAYS < maxCustomers) {
+            buckets <<= 1;
+        }
+        this.bucketMask = buckets - 1;
+        long records = enabled ? (long) buckets * WAYS : 0;
+        this.segments = new ByteBuffer[(int) ((records + RECORDS_PER_SEGMENT - 1) / RECORDS_PER_SEGMENT)];
+        for (int i = 0; i < segments.length; i++) {
+            long size = Math.min(RECORDS_PER_SEGMENT, records - (long) i * RECORDS_PER_SEGMENT);
+            segments[i] = ByteBuffer.allocateDirect((int) size * RECORD_SIZE);
+        }
+        this.bucketLocks = new Object[Math.min(buckets, 4096)];
+        for (int i = 0; i < bucketLocks.length; i++) {
+            bucketLocks[i] = new Object();
+        }
+        this.modifications = new AtomicLongArray(bucketLocks.length);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Reads the customer's monthly points in chronological order, passing each month that has transactions
+     * to the consumer. Nothing is passed unless the result is HIT.
+     */
+    public Lookup read(long customerId, ObjIntConsumer<YearMonth> monthConsumer) {
+        if (!enabled) {
+            return Lookup.MISS;
+        }
+        int bucket = bucketFor(customerId);
+        synchronized (lockFor(bucket)) {
+            long record = find(bucket, customerId);
+            if (record < 0) {
+                misses.increment();
+                return Lookup.MISS;
+            }
+            ByteBuffer segment = segmentOf(record);
+            int base = offsetOf(record);
+            if (nanoClock.getAsLong() - segment.getLong(base + LOADED_AT) > maxAgeNanos) {
+                segment.putLong(base + LAST_ACCESS, 0);
+                misses.increment();
+                return Lookup.MISS;
+            }
+            segment.putLong(base + LAST_ACCESS, clock.incrementAndGet());
+            if (segment.getInt(base + STATE) == STATE_TOO_WIDE) {
+                hits.increment();
+                return Lookup.TOO_WIDE;
+            }
+            int firstMonth = segment.getInt(base + FIRST_MONTH);
+            long mask = segment.getLong(base + MONTH_MASK);
+            for (int i = 0; i < MONTHS; i++) {
+                if ((mask & (1L << i)) != 0) {
+                    monthConsumer.accept(toYearMonth(firstMonth + i), segment.getInt(base + POINTS + i * Integer.BYTES));
+                }
+            }
+            hits.increment();
+            return Lookup.HIT;
+        }
+    }
+
+    /**
+     * Returns a stamp to pass to rehydrate, taken before reading the customer from the database.
+     */
+    public long modificationStamp(long customerId) {
+        return modifications.get(stripeOf(bucketFor(customerId)));
+    }
+
+    /**
+     * Stores the customer's monthly points as read from the database, unless a write for the customer
+     * has happened since the stamp was taken.
+     */
+    public void rehydrate(long customerId, long stamp, List<MonthlyReward> monthlyRewards) {
+        if (!enabled) {
+            return;
+        }
+        int minMonth = Integer.MAX_VALUE;
+        int maxMonth = Integer.MIN_VALUE;
+        for (MonthlyReward reward : monthlyRewards) {
+            int month = toMonthIndex(YearMonth.parse(reward.getMonth()));
+            minMonth = Math.min(minMonth, month);
+            maxMonth = Math.max(maxMonth, month);
+        }
+
+        int bucket = bucketFor(customerId);
+        synchronized (lockFor(bucket)) {
+            if (modifications.get(stripeOf(bucket)) != stamp) {
+                return;
+            }
+            long record = find(bucket, customerId);
+            if (record < 0) {
+                record = allocate(bucket, customerId);
+            }
+            ByteBuffer segment = segmentOf(record);
+            int base = offsetOf(record);
+            clear(segment, base);
+            segment.putLong(base + LOADED_AT, nanoClock.getAsLong());
+            if (monthlyRewards.isEmpty()) {
+                return;
+            }
+            if (maxMonth - minMonth >= MONTHS) {
+                segment.putInt(base + STATE, STATE_TOO_WIDE);
+                return;
+            }
+            segment.putInt(base + FIRST_MONTH, minMonth);
+            for (MonthlyReward reward : monthlyRewards) {
+                int slot = toMonthIndex(YearMonth.parse(reward.getMonth())) - minMonth;
+                addToSlot(segment, base, slot, reward.getAmount());
+            }
+        }
+    }
+
+    /**
+     * Removes the customer's record; it is rehydrated from the database on next read.
+     */
+    public void evict(long customerId) {
+        int bucket = bucketFor(customerId);
+        modifications.incrementAndGet(stripeOf(bucket));
+        if (!enabled) {
+            return;
+        }
+        synchronized (lockFor(bucket)) {
+            long record = find(bucket, customerId);
+            if (record >= 0) {
+                segmentOf(record).putLong(offsetOf(record) + LAST_ACCESS, 0);
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public long getCapacity() {
+        return enabled ? (long) (bucketMask + 1) * WAYS : 0;
+    }
+
+    private long find(int bucket, long customerId) {
+        for (int way = 0; way < WAYS; way++) {
+            long record = (long) bucket * WAYS + way;
+            ByteBuffer segment = segmentOf(record);
+            int base = offsetOf(record);
+            if (segment.getLong(base + LAST_ACCESS) != 0 && segment.getLong(base + CUSTOMER_ID) == customerId) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    // Takes an empty record in the bucket, or evicts the least recently used one.
+    private long allocate(int bucket, long customerId) {
+        long victim = -1;
+        long oldest = Long.MAX_VALUE;
+        for (int way = 0; way < WAYS; way++) {
+            long record = (long) bucket * WAYS + way;
+            long lastAccess = segmentOf(record).getLong(offsetOf(record) + LAST_ACCESS);
+            if (lastAccess < oldest) {
+                oldest = lastAccess;
+                victim = record;
+            }
+        }
+        if (oldest != 0) {
+            evictions.increment();
+        }
+        ByteBuffer segment = segmentOf(victim);
+        int base = offsetOf(victim);
+        segment.putLong(base + CUSTOMER_ID, customerId);
+        segment.putLong(base + LAST_ACCESS, clock.incrementAndGet());
+        return victim;
+    }
+
+    private void clear(ByteBuffer segment, int base) {
+        segment.putInt(base + FIRST_MONTH, 0);
+        segment.putInt(base + STATE, STATE_WINDOW);
+        segment.putLong(base + MONTH_MASK, 0);
+        for (int i = 0; i < MONTHS; i++) {
+            segment.putInt(base + POINTS + i * Integer.BYTES, 0);
+        }
+    }
+
+    private void addToSlot(ByteBuffer segment, int base, int slot, int points) {
+        int offset = base + POINTS + slot * Integer.BYTES;
+        segment.putInt(offset, segment.getInt(offset) + points);
+        segment.putLong(base + MONTH_MASK, segment.getLong(base + MONTH_MASK) | (1L << slot));
+    }
+
+    private int bucketFor(long customerId) {
+        long hash = customerId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & bucketMask;
+    }
+
+    private int stripeOf(int bucket) {
+        return bucket % bucketLocks.length;
+    }
+
+    private Object lockFor(int bucket) {
+        return bucketLocks[stripeOf(bucket)];
+    }
+
+    private ByteBuffer segmentOf(long record) {
+        return segments[(int) (record / RECORDS_PER_SEGMENT)];
+    }
+
+    private static int offsetOf(long record) {
+        return (int) (record % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    private static int toMonthIndex(YearMonth yearMonth) {
+        return yearMonth.getYear() * 12 + yearMonth.getMonthValue() - 1;
+    }
+
+    private static YearMonth toYearMonth(int monthIndex) {
+        return YearMonth.of(Math.floorDiv(monthIndex, 12), Math.floorMod(monthIndex, 12) + 1);
+    }
+}
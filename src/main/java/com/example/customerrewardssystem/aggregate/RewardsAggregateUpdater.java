@@ -0,0 +1,64 @@
+package com.example.customerrewardssystem.aggregate;
+
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
+import com.example.customerrewardssystem.service.BatchPointsCalculator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps the daily points indexes and the off-heap monthly store in step with committed transaction writes.
+ * A transaction created inside a Spring transaction is added to the customer's cached index once it commits; every
+ * other write drops what is held for the customer, and it is rebuilt from committed data on next use.
+ * <p>
+ * Writes made without a Spring transaction, such as by the append-only store, publish their event after the write is
+ * already visible, so an index built in between may hold it; those writes always drop the index.
+ */
+@Component
+public class RewardsAggregateUpdater {
+    private final DailyPointsIndexCache dailyPointsIndexCache;
+    private final OffHeapRewardsStore offHeapRewardsStore;
+
+    public RewardsAggregateUpdater(DailyPointsIndexCache dailyPointsIndexCache, OffHeapRewardsStore offHeapRewardsStore) {
+        this.dailyPointsIndexCache = dailyPointsIndexCache;
+        this.offHeapRewardsStore = offHeapRewardsStore;
+    }
+
+    // Runs when the event is published, before commit, so the index cache knows about the write before readers can
+    // see it; the rest happens after completion, so rolled-back writes are never applied.
+    @EventListener
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        Long customerId = event.getCustomerId();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            dailyPointsIndexCache.evict(customerId);
+            offHeapRewardsStore.evict(customerId);
+            return;
+        }
+        boolean created = event.getType() == TransactionChangedEvent.Type.CREATED;
+        if (created) {
+            dailyPointsIndexCache.beginWrite(customerId);
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    if (created) {
+                        dailyPointsIndexCache.endWrite(customerId);
+                    }
+                    return;
+                }
+                if (created && status == STATUS_COMMITTED) {
+                    dailyPointsIndexCache.add(customerId, event.getDate(), BatchPointsCalculator.points(event.getAmount()));
+                } else {
+                    // An update or delete, or an outcome the transaction manager could not tell.
+                    dailyPointsIndexCache.evict(customerId);
+                    if (created) {
+                        dailyPointsIndexCache.endWrite(customerId);
+                    }
+                }
+                offHeapRewardsStore.evict(customerId);
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.customerrewardssystem.aggregate;
+
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.security.SecureRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Version stamps for rewards responses, bumped on every committed transaction write.
+ * Versions are kept per stripe of customers rather than per customer, so memory stays fixed however many customers
+ * are written; a write then also changes the tags of the other customers in its stripe, which costs them a refetch.
+ * Tags are only meaningful to the instance that issued them. Versions are held in memory, so each instance start
+ * uses a new random epoch, which keeps tags from an earlier run or from another instance from matching.
+ * Only writes that publish a TransactionChangedEvent in this instance are seen: writes made by other instances, or
+ * in bulk through plain JDBC such as the load test's DatasetGenerator, do not change the tags.
+ */
+@Component
+public class RewardsVersionTracker {
+    private static final int VERSION_STRIPES = 1 << 16;
+
+    private final String epoch = Long.toString(new SecureRandom().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicLongArray versions = new AtomicLongArray(VERSION_STRIPES);
+
+    /**
+     * Returns the customer's current version; customers in a stripe with no recorded writes are at version 0.
+     */
+    public long getVersion(Long customerId) {
+        return versions.get(stripeOf(customerId));
+    }
+
+    /**
+     * Returns a strong entity tag for the given version of the customer, made distinct per resource by the qualifiers.
+     * Read the version before computing the response, and only share that computation with requests that read the same
+     * version: a write that lands during the computation then only causes an extra refetch, never a stale tag.
+     */
+    public String eTag(Long customerId, long version, Object... qualifiers) {
+        StringBuilder tag = new StringBuilder("\"").append(epoch).append('-').append(customerId)
+                .append('-').append(version);
+        for (Object qualifier : qualifiers) {
+            tag.append('-').append(qualifier);
+        }
+        return tag.append('"').toString();
+    }
+
+    // Bumped after commit, so a reader never sees the new version while the database still returns the old rows.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransactionChanged(TransactionChangedEvent event) {
+        versions.incrementAndGet(stripeOf(event.getCustomerId()));
+    }
+
+    private static int stripeOf(Long customerId) {
+        long hash = customerId * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & (VERSION_STRIPES - 1);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.customerrewardssystem.config;
+
+import com.example.customerrewardssystem.limit.ConcurrencyLimitFilter;
+import com.example.customerrewardssystem.limit.GradientConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+/**
+ * Adaptive concurrency limits for the /api/rewards endpoints, one for single-customer lookups and one for batches.
+ * Active unless rewards.limiter.enabled=false.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "rewards.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfig {
+
+    @Bean
+    public GradientConcurrencyLimiter lookupConcurrencyLimiter(MeterRegistry meterRegistry,
+                                                               @Value("${rewards.limiter.lookup.initial-limit:20}") int initialLimit,
+                                                               @Value("${rewards.limiter.lookup.min-limit:4}") int minLimit,
+                                                               @Value("${rewards.limiter.lookup.max-limit:200}") int maxLimit) {
+        return new GradientConcurrencyLimiter("lookup", initialLimit, minLimit, maxLimit, meterRegistry);
+    }
+
+    @Bean
+    public GradientConcurrencyLimiter batchConcurrencyLimiter(MeterRegistry meterRegistry,
+                                                              @Value("${rewards.limiter.batch.initial-limit:4}") int initialLimit,
+                                                              @Value("${rewards.limiter.batch.min-limit:1}") int minLimit,
+                                                              @Value("${rewards.limiter.batch.max-limit:20}") int maxLimit) {
+        return new GradientConcurrencyLimiter("batch", initialLimit, minLimit, maxLimit, meterRegistry);
+    }
+
+    // Runs first, so rejected requests skip all other filters.
+    @Bean
+    public FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            GradientConcurrencyLimiter lookupConcurrencyLimiter, GradientConcurrencyLimiter batchConcurrencyLimiter,
+            @Value("${rewards.limiter.retry-after:1s}") Duration retryAfter) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration = new FilterRegistrationBean<>(
+                new ConcurrencyLimitFilter(lookupConcurrencyLimiter, batchConcurrencyLimiter, retryAfter));
+        registration.addUrlPatterns("/api/rewards/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.customerrewardssystem.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Routing data source that sends read-only transactions to the replica and everything else to the primary.
+ * Reads fall back to the primary while the replica may still be behind the last committed write,
+ * which bounds the staleness a client can observe to the configured maximum replica lag.
+ * Only writes made through this instance are tracked; writes from other JVMs do not hold reads on the primary.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    private final long maxLagNanos;
+    private final LongSupplier clock;
+    private volatile long lastWriteNanos;
+
+    public ReadReplicaRoutingDataSource(Duration maxLag) {
+        this(maxLag, System::nanoTime);
+    }
+
+    ReadReplicaRoutingDataSource(Duration maxLag, LongSupplier clock) {
+        this.maxLagNanos = maxLag.toNanos();
+        this.clock = clock;
+        this.lastWriteNanos = clock.getAsLong() - maxLagNanos;
+    }
+
+    /**
+     * Picks the target for the connection being acquired.
+     * Must run after the transaction has been marked read-only, so it is wrapped in a lazy connection proxy.
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                recordWrite();
+            }
+            return Route.PRIMARY;
+        }
+        return isReplicaCaughtUp() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    /**
+     * Returns true once the maximum replica lag has elapsed since the last write on the primary.
+     */
+    public boolean isReplicaCaughtUp() {
+        return clock.getAsLong() - lastWriteNanos >= maxLagNanos;
+    }
+
+    public long getMaxLag(TimeUnit unit) {
+        return unit.convert(maxLagNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // The lag window starts when the write becomes visible, so it is re-armed when the transaction completes.
+    private void recordWrite() {
+        lastWriteNanos = clock.getAsLong();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lastWriteNanos = clock.getAsLong();
+                }
+            });
+        }
+    }
+}
@@ -1,24 +1,36 @@
 package com.example.customerrewardssystem.controller;
 
+import com.example.customerrewardssystem.aggregate.RewardsVersionTracker;
+import com.example.customerrewardssystem.limit.ConcurrencyLimitFilter;
 import com.example.customerrewardssystem.model.CustomerRewardsSummary;
 import com.example.customerrewardssystem.model.Transaction;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import com.example.customerrewardssystem.service.RequestCoalescer;
 import com.example.customerrewardssystem.service.RewardsService;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/rewards")
 public class RewardsController {
     private final RewardsService rewardsService;
+    private final RequestCoalescer requestCoalescer;
+    private final RewardsVersionTracker rewardsVersionTracker;
 
-    // Constructor to autowire the RewardsService
+    // Constructor to autowire the RewardsService, the coalescer shared by identical concurrent lookups
+    // and the per-customer versions behind the ETags
     @Autowired
-    public RewardsController(RewardsService rewardsService) {
+    public RewardsController(RewardsService rewardsService, RequestCoalescer requestCoalescer,
+                             RewardsVersionTracker rewardsVersionTracker) {
         this.rewardsService = rewardsService;
+        this.requestCoalescer = requestCoalescer;
+        this.rewardsVersionTracker = rewardsVersionTracker;
     }
 
     /**
@@ -35,41 +47,75 @@ public class RewardsController {
 
     /**
      * Endpoint to get the rewards for a specific customer.
+     * Concurrent requests for the same customer share one computation.
+     * Answers Not Modified without computing when If-None-Match holds the customer's current ETag.
      *
      * @param customerId The ID of the customer.
+     * @param webRequest The current request, used for the conditional GET check.
      * @return ResponseEntity with CustomerRewardsSummary or Not Found if the customer does not exist.
      */
     @GetMapping("/{customerId}/rewards")
-    public ResponseEntity<CustomerRewardsSummary> getRewardsForCustomer(@PathVariable Long customerId) {
-        CustomerRewardsSummary rewards = rewardsService.calculateRewardsForCustomer(customerId);
+    public ResponseEntity<CustomerRewardsSummary> getRewardsForCustomer(@PathVariable Long customerId, WebRequest webRequest) {
+        long version = rewardsVersionTracker.getVersion(customerId);
+        String eTag = rewardsVersionTracker.eTag(customerId, version);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        CustomerRewardsSummary rewards = coalesce(new RewardsQuery(customerId, version, null, null),
+                () -> rewardsService.calculateRewardsForCustomer(customerId), webRequest);
         if (rewards == null) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(rewards);
+        return ResponseEntity.ok().eTag(eTag).body(rewards);
     }
 
     /**
      * Endpoint to calculate rewards for a specific customer between given dates.
      * If start or end date is not provided, defaults to the last three months.
+     * Concurrent requests for the same customer and dates share one computation.
+     * Answers Not Modified without computing when If-None-Match holds the current ETag for the customer and dates.
      *
      * @param customerId The ID of the customer.
      * @param startDate  The start date for calculating rewards.
      * @param endDate    The end date for calculating rewards.
+     * @param webRequest The current request, used for the conditional GET check.
      * @return ResponseEntity containing CustomerRewardsSummary.
      */
     @GetMapping("/{customerId}/calculate")
     public ResponseEntity<CustomerRewardsSummary> calculateRewardsForCustomer(
             @PathVariable Long customerId,
             @RequestParam(required = false) LocalDate startDate,
-            @RequestParam(required = false) LocalDate endDate) {
-        if (startDate == null) {
-            startDate = LocalDate.now().minusMonths(3);
-        }
-        if (endDate == null) {
-            endDate = LocalDate.now();
+            @RequestParam(required = false) LocalDate endDate,
+            WebRequest webRequest) {
+        LocalDate start = startDate != null ? startDate : LocalDate.now().minusMonths(3);
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+
+        // The resolved dates are part of the tag, since the default range moves with the current date.
+        long version = rewardsVersionTracker.getVersion(customerId);
+        String eTag = rewardsVersionTracker.eTag(customerId, version, start, end);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
         }
 
-        CustomerRewardsSummary rewards = rewardsService.findByCustomerIdAndDateBetween(customerId, startDate, endDate);
-        return ResponseEntity.ok(rewards);
+        CustomerRewardsSummary rewards = coalesce(new RewardsQuery(customerId, version, start, end),
+                () -> rewardsService.findByCustomerIdAndDateBetween(customerId, start, end), webRequest);
+        return ResponseEntity.ok().eTag(eTag).body(rewards);
+    }
+
+    // Runs the lookup through the coalescer. Only the request that runs the computation clears the skip marker,
+    // so the concurrency limiter does not sample the latency of requests that waited on another one's work.
+    private CustomerRewardsSummary coalesce(RewardsQuery query, Supplier<CustomerRewardsSummary> computation,
+                                            WebRequest webRequest) {
+        webRequest.setAttribute(ConcurrencyLimitFilter.SKIP_SAMPLE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        return requestCoalescer.execute(query, () -> {
+            webRequest.removeAttribute(ConcurrencyLimitFilter.SKIP_SAMPLE_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+            return computation.get();
+        });
+    }
+
+    // Identifies identical rewards lookups for request coalescing; dates are null for the all-time lookup.
+    // The version keeps a request that read a newer version from joining a computation started before the write,
+    // which would pair pre-write data with the post-write ETag.
+    private record RewardsQuery(Long customerId, long version, LocalDate startDate, LocalDate endDate) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,44 @@
+package com.example.customerrewardssystem.event;
+
+import com.example.customerrewardssystem.model.Transaction;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA entity listener that turns Transaction writes into TransactionChangedEvents.
+ * Instantiated by Hibernate through Spring, so the event publisher is injected.
+ * Events are published before the write commits; consumers should apply them after commit, for example with
+ * @TransactionalEventListener, so rolled-back writes are never applied.
+ */
+public class TransactionChangeListener {
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TransactionChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    public void onCreated(Transaction transaction) {
+        publish(TransactionChangedEvent.Type.CREATED, transaction);
+    }
+
+    @PostUpdate
+    public void onUpdated(Transaction transaction) {
+        publish(TransactionChangedEvent.Type.UPDATED, transaction);
+    }
+
+    @PostRemove
+    public void onDeleted(Transaction transaction) {
+        publish(TransactionChangedEvent.Type.DELETED, transaction);
+    }
+
+    private void publish(TransactionChangedEvent.Type type, Transaction transaction) {
+        if (transaction.getCustomer() == null) {
+            return;
+        }
+        eventPublisher.publishEvent(new TransactionChangedEvent(type, transaction.getCustomer().getId(),
+                transaction.getDate(), transaction.getAmount()));
+    }
+}
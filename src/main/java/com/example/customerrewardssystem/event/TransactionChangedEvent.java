@@ -0,0 +1,44 @@
+package com.example.customerrewardssystem.event;
+
+import java.time.LocalDate;
+
+/**
+ * Published whenever a transaction is written, so derived rewards state can be kept up to date.
+ * Date and amount are the values after the change; for updates and deletes the previous values
+ * are not known, so listeners should drop what they hold for the customer.
+ */
+public class TransactionChangedEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final Long customerId;
+    private final LocalDate date;
+    private final Double amount;
+
+    public TransactionChangedEvent(Type type, Long customerId, LocalDate date, Double amount) {
+        this.type = type;
+        this.customerId = customerId;
+        this.date = date;
+        this.amount = amount;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getCustomerId() {
+        return customerId;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Double getAmount() {
+        return amount;
+    }
+}
@@ -3,27 +3,30 @@ package com.example.customerrewardssystem.init;
 import com.example.customerrewardssystem.model.Customer;
 import com.example.customerrewardssystem.model.Transaction;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import com.example.customerrewardssystem.repository.CustomerRepository;
-import com.example.customerrewardssystem.repository.TransactionRepository;
+import com.example.customerrewardssystem.store.TransactionStore;
 
 import java.time.LocalDate;
 
 /**
  * Data initializer to pre-populate the database with sample data.
  * Implements CommandLineRunner to run the initialization code at application startup.
+ * Disabled with rewards.seed-data.enabled=false, as in the faststart profile.
  */
 @Component
+@ConditionalOnProperty(prefix = "rewards.seed-data", name = "enabled", havingValue = "true", matchIfMissing = true)
 public class DataInitializer implements CommandLineRunner {
     private final CustomerRepository customerRepository;
-    private final TransactionRepository transactionRepository;
+    private final TransactionStore transactionStore;
 
     /**
-     * Constructor to autowire the Customer and Transaction repositories.
+     * Constructor to autowire the Customer repository and the transaction store.
      */
-    public DataInitializer(CustomerRepository customerRepository, TransactionRepository transactionRepository) {
+    public DataInitializer(CustomerRepository customerRepository, TransactionStore transactionStore) {
         this.customerRepository = customerRepository;
-        this.transactionRepository = transactionRepository;
+        this.transactionStore = transactionStore;
     }
 
     /**
@@ -37,27 +40,32 @@ public class DataInitializer implements CommandLineRunner {
         customerRepository.save(alice);
         customerRepository.save(bob);
 
+        // A persistent transaction store already holds the sample transactions from an earlier start
+        if (transactionStore.count() > 0) {
+            return;
+        }
+
         // Initialize the current date
         LocalDate now = LocalDate.now();
 
         // Create and save transactions for Alice over a three-month period
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 120.0, alice));
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 75.0, alice));
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 200.0, alice));
-        transactionRepository.save(new Transaction(null, now.minusMonths(1), 140.0, alice));
-        transactionRepository.save(new Transaction(null, now.minusMonths(1), 60.0, alice));
-        transactionRepository.save(new Transaction(null, now, 220.0, alice));
-        transactionRepository.save(new Transaction(null, now, 50.0, alice));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 120.0, alice));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 75.0, alice));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 200.0, alice));
+        transactionStore.save(new Transaction(null, now.minusMonths(1), 140.0, alice));
+        transactionStore.save(new Transaction(null, now.minusMonths(1), 60.0, alice));
+        transactionStore.save(new Transaction(null, now, 220.0, alice));
+        transactionStore.save(new Transaction(null, now, 50.0, alice));
 
         // Create and save transactions for Bob over a three-month period
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 50.0, bob));
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 130.0, bob));
-        transactionRepository.save(new Transaction(null, now.minusMonths(2), 90.0, bob));
-        transactionRepository.save(new Transaction(null, now.minusMonths(1), 110.0, bob));
-        transactionRepository.save(new Transaction(null, now.minusMonths(1), 100.0, bob));
-        transactionRepository.save(new Transaction(null, now.minusMonths(1), 150.0, bob));
-        transactionRepository.save(new Transaction(null, now, 80.0, bob));
-        transactionRepository.save(new Transaction(null, now, 190.0, bob));
-        transactionRepository.save(new Transaction(null, now, 120.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 50.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 130.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(2), 90.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(1), 110.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(1), 100.0, bob));
+        transactionStore.save(new Transaction(null, now.minusMonths(1), 150.0, bob));
+        transactionStore.save(new Transaction(null, now, 80.0, bob));
+        transactionStore.save(new Transaction(null, now, 190.0, bob));
+        transactionStore.save(new Transaction(null, now, 120.0, bob));
     }
 }
@@ -0,0 +1,67 @@
+package com.example.customerrewardssystem.limit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Sheds load for the rewards endpoints before requests reach a worker's queue for the database.
+ * The batch calculation (POST /api/rewards/calculate) has its own limiter, so a burst of batches cannot starve
+ * single-customer lookups. Requests over the limit get 503 Service Unavailable with a Retry-After header at once.
+ * Only successful responses feed their latency into the limit; handlers set SKIP_SAMPLE_ATTRIBUTE on requests that
+ * succeed without doing the work themselves, such as ones that shared another request's computation.
+ */
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+    public static final String SKIP_SAMPLE_ATTRIBUTE = ConcurrencyLimitFilter.class.getName() + ".SKIP_SAMPLE";
+
+    private static final String BATCH_PATH = "/api/rewards/calculate";
+
+    private final GradientConcurrencyLimiter lookupLimiter;
+    private final GradientConcurrencyLimiter batchLimiter;
+    private final String retryAfterSeconds;
+
+    public ConcurrencyLimitFilter(GradientConcurrencyLimiter lookupLimiter, GradientConcurrencyLimiter batchLimiter,
+                                  Duration retryAfter) {
+        this.lookupLimiter = lookupLimiter;
+        this.batchLimiter = batchLimiter;
+        this.retryAfterSeconds = Long.toString(Math.max(1, retryAfter.toSeconds()));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean batch = HttpMethod.POST.matches(request.getMethod()) && BATCH_PATH.equals(request.getRequestURI().substring(request.getContextPath().length()));
+        Optional<GradientConcurrencyLimiter.Permit> permit = (batch ? batchLimiter : lookupLimiter).tryAcquire();
+        if (permit.isEmpty()) {
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, retryAfterSeconds);
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean completed = false;
+        try {
+            filterChain.doFilter(request, response);
+            completed = true;
+        } finally {
+            // Not Modified, client errors, failures and shared computations return early,
+            // and their latency would wrongly suggest spare capacity.
+            if (completed && HttpStatusCode.valueOf(response.getStatus()).is2xxSuccessful()
+                    && request.getAttribute(SKIP_SAMPLE_ATTRIBUTE) == null) {
+                permit.get().release(System.nanoTime() - start);
+            } else {
+                permit.get().ignore();
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.customerrewardssystem.limit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrency limit that adapts to observed latency, in the style of the gradient algorithms used for TCP congestion
+ * control. A long-term average of request latency serves as the no-load baseline. When recent requests take longer
+ * than the baseline, requests are queueing and the limit shrinks in proportion; otherwise it grows by a small
+ * allowance (the square root of the limit), probing for more capacity.
+ */
+public class GradientConcurrencyLimiter {
+    // Latency may exceed the baseline by this factor before the limit is reduced.
+    private static final double TOLERANCE = 1.5;
+    // Weight of each new limit estimate, and number of samples the baseline averages over.
+    private static final double SMOOTHING = 0.2;
+    private static final int BASELINE_WINDOW = 600;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter accepted;
+    private final Counter rejected;
+    private double estimatedLimit;
+    private double baselineRtt;
+
+    public GradientConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit, MeterRegistry meterRegistry) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limits must satisfy 1 <= min <= initial <= max for " + name);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.estimatedLimit = initialLimit;
+        this.accepted = Counter.builder("rewards.limiter.requests")
+                .description("Requests admitted by the concurrency limiter")
+                .tags("limiter", name, "outcome", "accepted")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("rewards.limiter.requests")
+                .description("Requests rejected by the concurrency limiter")
+                .tags("limiter", name, "outcome", "rejected")
+                .register(meterRegistry);
+        Gauge.builder("rewards.limiter.limit", this, GradientConcurrencyLimiter::getLimit)
+                .description("Current concurrency limit")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("rewards.limiter.in-flight", inFlight, AtomicInteger::get)
+                .description("Requests currently admitted")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("rewards.limiter.baseline-latency", this, limiter -> limiter.getBaselineRtt() / 1e9)
+                .description("Long-term average latency the limit is measured against, in seconds")
+                .tag("limiter", name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a request if fewer than the current limit are in flight.
+     *
+     * @return A permit to release when the request completes, or empty if the request should be rejected.
+     */
+    public Optional<Permit> tryAcquire() {
+        int limit = getLimit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                return Optional.empty();
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                accepted.increment();
+                return Optional.of(new Permit(current + 1));
+            }
+        }
+    }
+
+    public synchronized int getLimit() {
+        return (int) estimatedLimit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    synchronized double getBaselineRtt() {
+        return baselineRtt;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtStart) {
+        if (baselineRtt == 0) {
+            baselineRtt = rttNanos;
+        } else {
+            baselineRtt += (rttNanos - baselineRtt) / BASELINE_WINDOW;
+            // After a long overload the baseline itself has drifted up; pull it back so the limit can recover.
+            if (baselineRtt > 2 * rttNanos) {
+                baselineRtt *= 0.95;
+            }
+        }
+        // With the limit far from reached, latency says nothing about whether the limit is right.
+        if (inFlightAtStart < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * baselineRtt / Math.max(rttNanos, 1)));
+        double newLimit = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        newLimit = estimatedLimit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    }
+
+    /**
+     * An admitted request. Release it exactly once, with its latency if the request completed normally.
+     */
+    public class Permit {
+        private final int inFlightAtStart;
+
+        private Permit(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Releases the permit and feeds the request's latency into the limit.
+         */
+        public void release(long rttNanos) {
+            inFlight.decrementAndGet();
+            onSample(rttNanos, inFlightAtStart);
+        }
+
+        /**
+         * Releases the permit without a latency sample, for requests that failed before doing their usual work.
+         */
+        public void ignore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -1,10 +1,12 @@
 package com.example.customerrewardssystem.model;
 
+import com.example.customerrewardssystem.event.TransactionChangeListener;
 import jakarta.persistence.*;
 
 import java.time.LocalDate;
 
 @Entity
+@EntityListeners(TransactionChangeListener.class)
 public class Transaction {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,90 @@
+package com.example.customerrewardssystem.profiling;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * Runs one on-demand flight recording at a time, bounded in length and size.
+ * The recording stops by itself once its duration has passed; stopping it returns the recorded data.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rewards.profiling", name = "enabled", havingValue = "true")
+public class JfrRecorder {
+    // The settings bundled with the JDK; "profile" samples more often and costs a little more.
+    public static final Set<String> SETTINGS = Set.of("default", "profile");
+
+    private final Duration maxDuration;
+    private final DataSize maxSize;
+    private Recording recording;
+
+    public JfrRecorder(@Value("${rewards.profiling.max-duration:5m}") Duration maxDuration,
+                       @Value("${rewards.profiling.max-size:50MB}") DataSize maxSize) {
+        this.maxDuration = maxDuration;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Starts a recording with the given JDK settings, capped at the configured maximum duration.
+     *
+     * @return The duration the recording will run for.
+     * @throws IllegalStateException If a recording is already running.
+     */
+    public synchronized Duration start(String settings, Duration duration) throws IOException, ParseException {
+        if (!SETTINGS.contains(settings)) {
+            throw new IllegalArgumentException("Unknown recording settings: " + settings);
+        }
+        if (recording != null && recording.getState() == RecordingState.RUNNING) {
+            throw new IllegalStateException("A recording is already running");
+        }
+        discard();
+        Duration bounded = duration == null || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        Recording started = new Recording(Configuration.getConfiguration(settings));
+        started.setName("rewards-profiling");
+        started.setToDisk(true);
+        started.setDuration(bounded);
+        started.setMaxSize(maxSize.toBytes());
+        started.start();
+        recording = started;
+        return bounded;
+    }
+
+    /**
+     * Stops the recording if it is still running and writes it to a temporary file, which the caller deletes.
+     *
+     * @throws IllegalStateException If no recording has been started.
+     */
+    public synchronized Path stop() throws IOException {
+        if (recording == null) {
+            throw new IllegalStateException("No recording has been started");
+        }
+        try {
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("rewards-", ".jfr");
+            recording.dump(file);
+            return file;
+        } finally {
+            discard();
+        }
+    }
+
+    private void discard() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
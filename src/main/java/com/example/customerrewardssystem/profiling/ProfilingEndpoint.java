@@ -0,0 +1,76 @@
+package com.example.customerrewardssystem.profiling;
+
+import org.springframework.boot.actuate.autoconfigure.web.server.ConditionalOnManagementPort;
+import org.springframework.boot.actuate.autoconfigure.web.server.ManagementPortType;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+
+/**
+ * Actuator endpoint to take a flight recording on this node: POST /actuator/profiling starts one and
+ * DELETE /actuator/profiling stops it and returns the .jfr data.
+ * It is only created when actuator runs on its own port (management.server.port), so it is never served on the
+ * public port, and it is only reachable once "profiling" is added to management.endpoints.web.exposure.include.
+ */
+@Component
+@Endpoint(id = "profiling")
+@ConditionalOnProperty(prefix = "rewards.profiling", name = "enabled", havingValue = "true")
+@ConditionalOnManagementPort(ManagementPortType.DIFFERENT)
+public class ProfilingEndpoint {
+    private final JfrRecorder jfrRecorder;
+
+    public ProfilingEndpoint(JfrRecorder jfrRecorder) {
+        this.jfrRecorder = jfrRecorder;
+    }
+
+    /**
+     * Starts a flight recording.
+     *
+     * @param settings JDK recording settings, "default" (when not given) or "profile".
+     * @param duration How long to record, capped at rewards.profiling.max-duration.
+     * @return The duration actually used, Bad Request for unknown settings, or Conflict if a recording is already running.
+     */
+    @WriteOperation(produces = "text/plain")
+    public WebEndpointResponse<String> startRecording(@Nullable String settings, @Nullable Duration duration)
+            throws IOException, ParseException {
+        try {
+            return new WebEndpointResponse<>(jfrRecorder.start(settings != null ? settings : "default", duration).toString());
+        } catch (IllegalArgumentException e) {
+            return new WebEndpointResponse<>(e.getMessage(), WebEndpointResponse.STATUS_BAD_REQUEST);
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(e.getMessage(), 409);
+        }
+    }
+
+    /**
+     * Stops the flight recording and returns it.
+     *
+     * @return The recording as a .jfr file, or Not Found if none was started.
+     */
+    @DeleteOperation
+    public WebEndpointResponse<Resource> stopRecording() throws IOException {
+        Path file;
+        try {
+            file = jfrRecorder.stop();
+        } catch (IllegalStateException e) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+        }
+        try {
+            return new WebEndpointResponse<>(new ByteArrayResource(Files.readAllBytes(file)));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
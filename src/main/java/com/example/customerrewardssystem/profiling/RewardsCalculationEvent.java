@@ -0,0 +1,38 @@
+package com.example.customerrewardssystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Flight recorder event spanning a rewards calculation over a customer's transactions.
+ * Time spent fetching and hydrating rows is reported separately from the calculation itself.
+ */
+@Name("com.example.rewards.RewardsCalculation")
+@Label("Rewards Calculation")
+@Description("Calculating monthly rewards from a customer's transactions")
+@Category("Rewards")
+@StackTrace(false)
+public class RewardsCalculationEvent extends jdk.jfr.Event {
+    @Label("Customer Id")
+    public long customerId;
+
+    @Label("Transactions")
+    public int transactionCount;
+
+    @Label("Months")
+    public int months;
+
+    @Label("Hydration Time")
+    @Description("Time spent fetching and hydrating transaction rows")
+    @Timespan(Timespan.NANOSECONDS)
+    public long hydrationTime;
+
+    @Label("Calculation Time")
+    @Description("Time spent calculating points, excluding hydration")
+    @Timespan(Timespan.NANOSECONDS)
+    public long calculationTime;
+}
@@ -0,0 +1,27 @@
+package com.example.customerrewardssystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the JSON serialization of a rewards response.
+ */
+@Name("com.example.rewards.RewardsSerialization")
+@Label("Rewards Serialization")
+@Description("Writing a rewards response as JSON")
+@Category("Rewards")
+@StackTrace(false)
+public class RewardsSerializationEvent extends jdk.jfr.Event {
+    @Label("Customer Id")
+    @Description("Customer of a single summary, or -1 for a list")
+    public long customerId;
+
+    @Label("Summaries")
+    public int summaries;
+
+    @Label("Months")
+    public int months;
+}
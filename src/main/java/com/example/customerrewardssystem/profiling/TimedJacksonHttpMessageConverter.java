@@ -0,0 +1,56 @@
+package com.example.customerrewardssystem.profiling;
+
+import com.example.customerrewardssystem.model.CustomerRewardsSummary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * JSON converter that records a RewardsSerializationEvent for each rewards response it writes.
+ * Replaces the converter Spring Boot would otherwise register, using the same ObjectMapper.
+ */
+@Component
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+            throws IOException, HttpMessageNotWritableException {
+        RewardsSerializationEvent event = new RewardsSerializationEvent();
+        if (!event.isEnabled()) {
+            super.writeInternal(object, type, outputMessage);
+            return;
+        }
+        event.begin();
+        super.writeInternal(object, type, outputMessage);
+        event.end();
+        if (object instanceof CustomerRewardsSummary summary) {
+            event.customerId = summary.getCustomerId() != null ? summary.getCustomerId() : -1;
+            event.summaries = 1;
+            event.months = summary.getMonthlyRewards().size();
+        } else if (object instanceof Collection<?> collection) {
+            event.customerId = -1;
+            for (Object element : collection) {
+                if (element instanceof CustomerRewardsSummary summary) {
+                    event.summaries++;
+                    event.months += summary.getMonthlyRewards().size();
+                }
+            }
+            if (event.summaries == 0) {
+                return;
+            }
+        } else {
+            return;
+        }
+        event.commit();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.customerrewardssystem.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event spanning the execution of a transaction query, up to the point rows can be read.
+ */
+@Name("com.example.rewards.TransactionQuery")
+@Label("Transaction Query")
+@Description("Opening a session and executing a transaction query")
+@Category("Rewards")
+@StackTrace(false)
+public class TransactionQueryEvent extends jdk.jfr.Event {
+    @Label("Customer Id")
+    public long customerId;
+
+    @Label("Query")
+    public String query;
+}
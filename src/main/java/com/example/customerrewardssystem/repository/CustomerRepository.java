@@ -1,7 +1,10 @@
 package com.example.customerrewardssystem.repository;
 
 import com.example.customerrewardssystem.model.Customer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
 import java.util.Optional;
@@ -9,17 +12,26 @@ import java.util.Optional;
 /**
  * Repository interface for Customer entities.
  * Provides CRUD operations and custom query methods.
+ * The finders are cacheable queries; their results are kept in the customer-queries region.
  */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     // Find a customer by their email.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customer-queries")})
     Optional<Customer> findCustomerByEmail(String email);
 
     // Find a customer by their ID.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customer-queries")})
     Optional<Customer> findCustomerById(Long id);
 
     // Find customers by their name.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customer-queries")})
     List<Customer> findCustomerByName(String name);
 
     // Find customers whose names contain the specified fragment, case-insensitive.
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "customer-queries")})
     List<Customer> findCustomerByNameContainingIgnoreCase(String nameFragment);
 }
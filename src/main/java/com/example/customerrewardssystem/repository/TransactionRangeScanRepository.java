@@ -0,0 +1,89 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Customer;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bulk reads over customer id ranges for batch jobs, in plain JDBC so rows are never hydrated into entities.
+ * Transactions are read in keyset-paginated chunks ordered by (customer_id, id), so each chunk is an index range scan
+ * that resumes where the previous one stopped, however far into the range it is.
+ */
+@Repository
+public class TransactionRangeScanRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    public TransactionRangeScanRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A chunk of transactions in columns, valid until the consumer returns; the arrays are reused for the next chunk.
+     */
+    public record TransactionChunk(long[] customerIds, LocalDate[] dates, double[] amounts, int size) {
+    }
+
+    // Smallest and largest customer ids, or null when there are no customers.
+    public Long findMinCustomerId() {
+        return jdbcTemplate.queryForObject("SELECT MIN(id) FROM customer", Long.class);
+    }
+
+    public Long findMaxCustomerId() {
+        return jdbcTemplate.queryForObject("SELECT MAX(id) FROM customer", Long.class);
+    }
+
+    // Customers with fromId <= id < toId, ordered by id.
+    public List<Customer> findCustomersInRange(long fromId, long toId) {
+        return jdbcTemplate.query("SELECT id, name, email FROM customer WHERE id >= ? AND id < ? ORDER BY id",
+                (rs, rowNum) -> new Customer(rs.getLong("id"), rs.getString("name"), rs.getString("email")),
+                fromId, toId);
+    }
+
+    /**
+     * Passes the transactions of customers with fromCustomerId <= id < toCustomerId, dated between startDate and
+     * endDate inclusive, to the consumer in chunks of up to chunkSize, ordered by customer id.
+     *
+     * @return The number of transactions read.
+     */
+    public long scanTransactions(long fromCustomerId, long toCustomerId, LocalDate startDate, LocalDate endDate,
+                                 int chunkSize, Consumer<TransactionChunk> consumer) {
+        long[] customerIds = new long[chunkSize];
+        long[] ids = new long[chunkSize];
+        LocalDate[] dates = new LocalDate[chunkSize];
+        double[] amounts = new double[chunkSize];
+        long lastCustomerId = fromCustomerId - 1;
+        long lastId = Long.MAX_VALUE;
+        long total = 0;
+        while (true) {
+            int[] size = {0};
+            jdbcTemplate.query("SELECT id, customer_id, date, amount FROM transaction"
+                            + " WHERE customer_id >= ? AND customer_id < ? AND date BETWEEN ? AND ?"
+                            + " AND (customer_id > ? OR (customer_id = ? AND id > ?))"
+                            + " ORDER BY customer_id, id LIMIT ?",
+                    rs -> {
+                        int row = size[0]++;
+                        ids[row] = rs.getLong(1);
+                        customerIds[row] = rs.getLong(2);
+                        dates[row] = rs.getObject(3, LocalDate.class);
+                        amounts[row] = rs.getDouble(4);
+                    },
+                    fromCustomerId, toCustomerId, Date.valueOf(startDate), Date.valueOf(endDate),
+                    lastCustomerId, lastCustomerId, lastId, chunkSize);
+            if (size[0] == 0) {
+                return total;
+            }
+            consumer.accept(new TransactionChunk(customerIds, dates, amounts, size[0]));
+            total += size[0];
+            if (size[0] < chunkSize) {
+                return total;
+            }
+            lastCustomerId = customerIds[size[0] - 1];
+            lastId = ids[size[0] - 1];
+        }
+    }
+}
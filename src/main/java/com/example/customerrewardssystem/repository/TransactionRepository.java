@@ -11,8 +11,9 @@ import java.util.List;
 /**
  * Repository interface for Transaction entities.
  * Provides CRUD operations and custom query methods related to transactions.
+ * Streaming variants for large histories come from TransactionStreamRepository.
  */
-public interface TransactionRepository extends JpaRepository<Transaction, Long> {
+public interface TransactionRepository extends JpaRepository<Transaction, Long>, TransactionStreamRepository {
     // Find transactions between two dates.
     List<Transaction> findByDateBetween(LocalDate startDate, LocalDate endDate);
 
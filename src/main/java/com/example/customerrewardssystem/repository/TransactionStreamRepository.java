@@ -0,0 +1,20 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Transaction;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+/**
+ * Streaming query methods for customers with very large transaction histories.
+ * Rows are read through a forward-only JDBC cursor in a stateless session, so nothing is kept in a
+ * persistence context and memory does not grow with the number of rows.
+ * The returned stream holds a database connection and must be closed, e.g. with try-with-resources.
+ */
+public interface TransactionStreamRepository {
+    // Stream transactions for a customer identified by ID.
+    Stream<Transaction> streamByCustomerId(Long customerId);
+
+    // Stream transactions for a customer identified by ID between two dates.
+    Stream<Transaction> streamByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate);
+}
@@ -0,0 +1,100 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.profiling.TransactionQueryEvent;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.query.SelectionQuery;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Stateless-session implementation of TransactionStreamRepository, picked up by Spring Data as a
+ * fragment of TransactionRepository.
+ * Inside a Spring-managed transaction the session runs on that transaction's connection, so a request never holds
+ * two pooled connections and the stream reads within the transaction's snapshot.
+ */
+public class TransactionStreamRepositoryImpl implements TransactionStreamRepository {
+    private final SessionFactory sessionFactory;
+    private final DataSource dataSource;
+    private final int fetchSize;
+
+    public TransactionStreamRepositoryImpl(EntityManagerFactory entityManagerFactory, DataSource dataSource,
+                                           @Value("${rewards.streaming.fetch-size:500}") int fetchSize) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.dataSource = dataSource;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerId(Long customerId) {
+        return stream(customerId, "SELECT t FROM Transaction t WHERE t.customer.id = :customerId", query -> query
+                .setParameter("customerId", customerId));
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return stream(customerId, "SELECT t FROM Transaction t WHERE t.customer.id = :customerId AND t.date BETWEEN :startDate AND :endDate",
+                query -> query
+                        .setParameter("customerId", customerId)
+                        .setParameter("startDate", startDate)
+                        .setParameter("endDate", endDate));
+    }
+
+    // Opens a stateless session on the current transaction's connection, or on a connection of its own outside one,
+    // and closes it together with the stream. Without a surrounding transaction the cursor runs inside its own,
+    // since some drivers only honour the fetch size without auto-commit.
+    private Stream<Transaction> stream(Long customerId, String hql, Consumer<SelectionQuery<Transaction>> binder) {
+        TransactionQueryEvent event = new TransactionQueryEvent();
+        event.begin();
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        boolean ownTransaction = !DataSourceUtils.isConnectionTransactional(connection, dataSource);
+        StatelessSession session;
+        try {
+            session = sessionFactory.withStatelessOptions().connection(connection).openStatelessSession();
+        } catch (RuntimeException e) {
+            DataSourceUtils.releaseConnection(connection, dataSource);
+            throw e;
+        }
+        try {
+            if (ownTransaction) {
+                session.getTransaction().begin();
+            }
+            SelectionQuery<Transaction> query = session.createSelectionQuery(hql, Transaction.class)
+                    .setFetchSize(fetchSize)
+                    .setReadOnly(true);
+            binder.accept(query);
+            Stream<Transaction> results = query.getResultStream().onClose(() -> close(session, connection));
+            if (event.shouldCommit()) {
+                event.customerId = customerId;
+                event.query = hql;
+                event.commit();
+            }
+            return results;
+        } catch (RuntimeException e) {
+            close(session, connection);
+            throw e;
+        }
+    }
+
+    private void close(StatelessSession session, Connection connection) {
+        try {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().rollback();
+            }
+        } finally {
+            try {
+                session.close();
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        }
+    }
+}
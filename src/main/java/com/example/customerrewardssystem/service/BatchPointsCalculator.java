@@ -0,0 +1,103 @@
+package com.example.customerrewardssystem.service;
+
+/**
+ * Computes reward points for transaction amounts. points(double) is the single definition of the reward tiers;
+ * RewardsService.calculatePointsForTransaction delegates to it and the array methods give the same results.
+ * Uses the Vector API when the JVM was started with --add-modules jdk.incubator.vector, and a scalar loop otherwise.
+ */
+public final class BatchPointsCalculator {
+    // Set -Drewards.points.scalar=true to force the scalar loop, for comparison or if the vector path misbehaves.
+    private static final boolean VECTORIZED = !Boolean.getBoolean("rewards.points.scalar") && vectorSupported();
+
+    private BatchPointsCalculator() {
+    }
+
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Calculates the points for each amount.
+     *
+     * @param amounts Transaction amounts.
+     * @return Points, one per amount.
+     */
+    public static int[] calculatePoints(double[] amounts) {
+        int[] points = new int[amounts.length];
+        calculatePoints(amounts, points, amounts.length);
+        return points;
+    }
+
+    /**
+     * Calculates the points for the first length amounts into points, so buffers can be reused between batches.
+     */
+    public static void calculatePoints(double[] amounts, int[] points, int length) {
+        checkLength(amounts.length, points.length, length);
+        if (VECTORIZED) {
+            VectorizedPointsCalculator.calculatePoints(amounts, points, length);
+        } else {
+            calculatePointsScalar(amounts, points, 0, length);
+        }
+    }
+
+    /**
+     * Calculates the points for each amount given in cents, as if each were passed as cents / 100.0.
+     *
+     * @param amountsInCents Transaction amounts in cents.
+     * @return Points, one per amount.
+     */
+    public static int[] calculatePointsFromCents(long[] amountsInCents) {
+        int[] points = new int[amountsInCents.length];
+        if (VECTORIZED) {
+            VectorizedPointsCalculator.calculatePointsFromCents(amountsInCents, points, amountsInCents.length);
+        } else {
+            calculatePointsFromCentsScalar(amountsInCents, points, 0, amountsInCents.length);
+        }
+        return points;
+    }
+
+    // The scalar loops are also used for the tail the vector loop leaves over.
+    static void calculatePointsScalar(double[] amounts, int[] points, int from, int to) {
+        for (int i = from; i < to; i++) {
+            points[i] = points(amounts[i]);
+        }
+    }
+
+    static void calculatePointsFromCentsScalar(long[] amountsInCents, int[] points, int from, int to) {
+        for (int i = from; i < to; i++) {
+            points[i] = points(amountsInCents[i] / 100.0);
+        }
+    }
+
+    /**
+     * Calculates the points for one amount: none up to 50, one per dollar from 50 to 100, and two per dollar over 100.
+     * VectorizedPointsCalculator computes the same tiers lane by lane and must be kept in step with this method.
+     */
+    public static int points(double amount) {
+        if (amount <= 50) {
+            return 0;
+        } else if (amount <= 100) {
+            return (int) (amount - 50);
+        } else {
+            return (int) (2 * (amount - 100) + 50);
+        }
+    }
+
+    private static void checkLength(int amounts, int points, int length) {
+        if (length < 0 || length > amounts || length > points) {
+            throw new IndexOutOfBoundsException("Length " + length + " out of bounds for " + amounts + " amounts and " + points + " points");
+        }
+    }
+
+    // The incubator module is only resolved when requested on the command line, so check before touching its classes.
+    private static boolean vectorSupported() {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return VectorizedPointsCalculator.isSupported();
+        } catch (LinkageError | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customerrewardssystem.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of identical concurrent requests.
+ * The first caller for a key runs the computation; callers arriving while it is in flight wait on the
+ * same CompletableFuture and share its result or exception instead of repeating the work.
+ * In-flight keys are kept in lock-striped maps, so unrelated keys rarely contend.
+ */
+@Component
+public class RequestCoalescer {
+    private static final int STRIPES = 64;
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final Counter computed;
+    private final Counter coalesced;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.computed = Counter.builder("rewards.coalescing.requests")
+                .description("Requests that ran their own computation")
+                .tag("outcome", "computed")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("rewards.coalescing.requests")
+                .description("Requests that shared an identical in-flight computation")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+        meterRegistry.gauge("rewards.coalescing.in-flight", inFlight);
+    }
+
+    /**
+     * Returns the result of the computation for the key, sharing it with concurrent callers for an equal key.
+     * Keys must implement equals and hashCode.
+     */
+    public <V> V execute(Object key, Supplier<V> computation) {
+        Stripe stripe = stripes[Math.floorMod(key.hashCode() ^ (key.hashCode() >>> 16), STRIPES)];
+        CompletableFuture<Object> future;
+        boolean leader = false;
+        synchronized (stripe) {
+            future = stripe.inFlight.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                stripe.inFlight.put(key, future);
+                leader = true;
+            }
+        }
+
+        if (!leader) {
+            coalesced.increment();
+            return join(future);
+        }
+
+        computed.increment();
+        inFlight.incrementAndGet();
+        try {
+            V result = computation.get();
+            future.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+            synchronized (stripe) {
+                stripe.inFlight.remove(key, future);
+            }
+        }
+    }
+
+    public long getComputedCount() {
+        return (long) computed.count();
+    }
+
+    public long getCoalescedCount() {
+        return (long) coalesced.count();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V join(CompletableFuture<Object> future) {
+        try {
+            return (V) future.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's exception as is, so callers see the same error as the leader.
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Stripe {
+        private final Map<Object, CompletableFuture<Object>> inFlight = new HashMap<>();
+    }
+}
@@ -1,74 +1,174 @@
 package com.example.customerrewardssystem.service;
 
+import com.example.customerrewardssystem.aggregate.DailyPointsIndex;
+import com.example.customerrewardssystem.aggregate.DailyPointsIndexCache;
+import com.example.customerrewardssystem.aggregate.OffHeapRewardsStore;
 import com.example.customerrewardssystem.model.Customer;
 import com.example.customerrewardssystem.model.CustomerRewardsSummary;
 import com.example.customerrewardssystem.model.MonthlyReward;
 import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.profiling.RewardsCalculationEvent;
 import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.store.TransactionStore;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import com.example.customerrewardssystem.repository.TransactionRepository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class RewardsServiceImpl implements RewardsService {
+    // Transactions buffered per call to BatchPointsCalculator while streaming.
+    private static final int POINTS_BATCH_SIZE = 256;
 
-    private final TransactionRepository transactionRepository;
+    private final TransactionStore transactionStore;
     private final CustomerRepository customerRepository;
+    private final DailyPointsIndexCache dailyPointsIndexCache;
+    private final OffHeapRewardsStore offHeapRewardsStore;
 
     /**
-     * Constructor for autowiring the required repositories.
+     * Constructor for autowiring the transaction store, the customer repository and the precomputed rewards state.
      */
     @Autowired
-    public RewardsServiceImpl(TransactionRepository transactionRepository, CustomerRepository customerRepository) {
-        this.transactionRepository = transactionRepository;
+    public RewardsServiceImpl(TransactionStore transactionStore, CustomerRepository customerRepository,
+                              DailyPointsIndexCache dailyPointsIndexCache, OffHeapRewardsStore offHeapRewardsStore) {
+        this.transactionStore = transactionStore;
         this.customerRepository = customerRepository;
+        this.dailyPointsIndexCache = dailyPointsIndexCache;
+        this.offHeapRewardsStore = offHeapRewardsStore;
     }
 
     /**
-     * Calculates reward points based on a transaction amount.
+     * Calculates reward points based on a transaction amount, with the tiers defined in BatchPointsCalculator.
      */
     @Override
     public int calculatePointsForTransaction(double amount) {
-        if (amount <= 50) {
-            return 0;
-        } else if (amount <= 100) {
-            return (int) (amount - 50);
-        } else {
-            return (int) (2 * (amount - 100) + 50);
-        }
+        return BatchPointsCalculator.points(amount);
     }
 
     /**
      * Internal method to calculate rewards based on a list of transactions for a specific customer.
      */
     private CustomerRewardsSummary calculateRewardsWithTransactions(Customer customer, List<Transaction> transactions) {
-        Map<String, Integer> monthlyRewardsMap = new HashMap<>();
-        int totalPoints = 0;
+        return calculateRewardsWithTransactions(customer, transactions.stream());
+    }
 
-        for (Transaction transaction : transactions) {
-            YearMonth yearMonth = YearMonth.from(transaction.getDate());
-            int points = calculatePointsForTransaction(transaction.getAmount());
+    /**
+     * Internal method to calculate rewards from a stream of transactions for a specific customer.
+     * Transactions are consumed one at a time, so memory grows with the number of months, not transactions.
+     * Points are calculated in batches of POINTS_BATCH_SIZE amounts with BatchPointsCalculator.
+     * Months are returned in chronological order, as from the off-heap store and the daily points index.
+     * Records a RewardsCalculationEvent; rows are only timed while a flight recording has the event enabled.
+     */
+    private CustomerRewardsSummary calculateRewardsWithTransactions(Customer customer, Stream<Transaction> transactions) {
+        RewardsCalculationEvent event = new RewardsCalculationEvent();
+        boolean timed = event.isEnabled();
+        long calculationStart = timed ? System.nanoTime() : 0;
+        event.begin();
+        // Keyed by yyyy-MM, so the natural order of the keys is chronological.
+        Map<String, Integer> monthlyRewardsMap = new TreeMap<>();
+        int totalPoints = 0;
+        int transactionCount = 0;
+        long hydrationTime = 0;
 
-            monthlyRewardsMap.merge(yearMonth.toString(), points, Integer::sum);
-            totalPoints += points;
+        String[] months = new String[POINTS_BATCH_SIZE];
+        double[] amounts = new double[POINTS_BATCH_SIZE];
+        int[] points = new int[POINTS_BATCH_SIZE];
+        int batched = 0;
+        Iterator<Transaction> iterator = transactions.iterator();
+        while (true) {
+            long fetchStart = timed ? System.nanoTime() : 0;
+            boolean hasNext = iterator.hasNext();
+            Transaction transaction = hasNext ? iterator.next() : null;
+            if (timed) {
+                hydrationTime += System.nanoTime() - fetchStart;
+            }
+            if (hasNext) {
+                months[batched] = YearMonth.from(transaction.getDate()).toString();
+                amounts[batched++] = transaction.getAmount();
+                transactionCount++;
+            }
+            if (batched == POINTS_BATCH_SIZE || (!hasNext && batched > 0)) {
+                BatchPointsCalculator.calculatePoints(amounts, points, batched);
+                for (int i = 0; i < batched; i++) {
+                    monthlyRewardsMap.merge(months[i], points[i], Integer::sum);
+                    totalPoints += points[i];
+                }
+                batched = 0;
+            }
+            if (!hasNext) {
+                break;
+            }
         }
 
         List<MonthlyReward> monthlyRewards = monthlyRewardsMap.entrySet().stream()
                 .map(entry -> new MonthlyReward(entry.getKey(), entry.getValue()))
                 .collect(Collectors.toList());
 
+        event.end();
+        if (event.shouldCommit()) {
+            event.customerId = customer.getId() != null ? customer.getId() : -1;
+            event.transactionCount = transactionCount;
+            event.months = monthlyRewards.size();
+            event.hydrationTime = hydrationTime;
+            event.calculationTime = System.nanoTime() - calculationStart - hydrationTime;
+            event.commit();
+        }
         return new CustomerRewardsSummary(customer.getId(), customer.getName(), monthlyRewards, totalPoints);
     }
 
+    /**
+     * Internal method to calculate rewards for a date range from the customer's daily points index.
+     * Each month in the range costs two range sums, independent of the number of transactions.
+     * Months without transactions are left out, matching calculateRewardsWithTransactions.
+     */
+    private CustomerRewardsSummary calculateRewardsWithIndex(Customer customer, DailyPointsIndex index,
+                                                             LocalDate startDate, LocalDate endDate) {
+        List<MonthlyReward> monthlyRewards = new ArrayList<>();
+        int totalPoints = 0;
+
+        synchronized (index) {
+            if (!index.isEmpty()) {
+                LocalDate from = startDate.isAfter(index.firstDay()) ? startDate : index.firstDay();
+                LocalDate to = endDate.isBefore(index.lastDay()) ? endDate : index.lastDay();
+                for (YearMonth month = YearMonth.from(from); !month.isAfter(YearMonth.from(to)); month = month.plusMonths(1)) {
+                    LocalDate monthStart = month.atDay(1).isAfter(from) ? month.atDay(1) : from;
+                    LocalDate monthEnd = month.atEndOfMonth().isBefore(to) ? month.atEndOfMonth() : to;
+                    if (index.count(monthStart, monthEnd) > 0) {
+                        int points = (int) index.points(monthStart, monthEnd);
+                        monthlyRewards.add(new MonthlyReward(month.toString(), points));
+                        totalPoints += points;
+                    }
+                }
+            }
+        }
+
+        return new CustomerRewardsSummary(customer.getId(), customer.getName(), monthlyRewards, totalPoints);
+    }
+
+    /**
+     * Internal method to get the customer's daily points index, building it from all of their transactions on a miss.
+     */
+    private DailyPointsIndex dailyPointsIndex(Long customerId) {
+        return dailyPointsIndexCache.getOrLoad(customerId, () -> {
+            DailyPointsIndex index = new DailyPointsIndex();
+            try (Stream<Transaction> transactions = transactionStore.streamByCustomerId(customerId)) {
+                transactions.forEach(transaction ->
+                        index.add(transaction.getDate(), calculatePointsForTransaction(transaction.getAmount())));
+            }
+            return index;
+        });
+    }
+
     /**
      * Calculates rewards for each customer based on a list of transactions.
      * The rewards are calculated and summarized per customer.
@@ -93,35 +193,65 @@ public class RewardsServiceImpl implements RewardsService {
     /**
      * Retrieves and calculates rewards for a specific customer.
      * Throws an exception if the customer is not found.
+     * Monthly points come from the off-heap store when it holds the customer, and are stored there after a miss.
+     * Read-only, so it is served by the replica when one is configured.
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomerRewardsSummary calculateRewardsForCustomer(Long customerId) {
-        // assume DAO only retrieve transactions from the most recent three-month period
-        // otherwise use explicitly query to fetch relevant three-month transactions, such as findByCustomerAndDateBetween()
-        List<Transaction> transactions = transactionRepository.findByCustomerId(customerId);
         Customer customer = customerRepository.findCustomerById(customerId)
                 .orElseThrow(() -> new EntityNotFoundException("Customer not found with ID: " + customerId));
-        return calculateRewardsWithTransactions(customer, transactions);
+
+        List<MonthlyReward> storedRewards = new ArrayList<>();
+        OffHeapRewardsStore.Lookup lookup = offHeapRewardsStore.read(customerId,
+                (month, points) -> storedRewards.add(new MonthlyReward(month.toString(), points)));
+        if (lookup == OffHeapRewardsStore.Lookup.HIT) {
+            int totalPoints = storedRewards.stream().mapToInt(MonthlyReward::getAmount).sum();
+            return new CustomerRewardsSummary(customer.getId(), customer.getName(), storedRewards, totalPoints);
+        }
+
+        // assume DAO only retrieve transactions from the most recent three-month period
+        // otherwise use explicitly query to fetch relevant three-month transactions, such as findByCustomerAndDateBetween()
+        long stamp = offHeapRewardsStore.modificationStamp(customerId);
+        CustomerRewardsSummary summary;
+        try (Stream<Transaction> transactions = transactionStore.streamByCustomerId(customerId)) {
+            summary = calculateRewardsWithTransactions(customer, transactions);
+        }
+        if (lookup == OffHeapRewardsStore.Lookup.MISS) {
+            offHeapRewardsStore.rehydrate(customerId, stamp, summary.getMonthlyRewards());
+        }
+        return summary;
     }
 
     /**
      * Calculates rewards for a customer within a specified date range.
+     * Served from the daily points index when it is enabled.
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomerRewardsSummary findByCustomerAndDateBetween(Customer customer, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByCustomerAndDateBetween(customer, startDate, endDate);
+        if (dailyPointsIndexCache.isEnabled() && customer.getId() != null) {
+            return calculateRewardsWithIndex(customer, dailyPointsIndex(customer.getId()), startDate, endDate);
+        }
+        List<Transaction> transactions = transactionStore.findByCustomerAndDateBetween(customer, startDate, endDate);
         return calculateRewardsWithTransactions(customer, transactions);
     }
 
     /**
      * Calculates rewards for a customer (identified by ID) within a specified date range.
+     * Served from the daily points index when it is enabled.
      */
     @Override
+    @Transactional(readOnly = true)
     public CustomerRewardsSummary findByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
-        List<Transaction> transactions = transactionRepository.findByCustomerIdAndDateBetween(customerId, startDate, endDate);
         Customer customer = customerRepository.findCustomerById(customerId)
                 .orElseThrow(() -> new EntityNotFoundException("Customer not found with ID: " + customerId));
-        return calculateRewardsWithTransactions(customer, transactions);
+        if (dailyPointsIndexCache.isEnabled()) {
+            return calculateRewardsWithIndex(customer, dailyPointsIndex(customerId), startDate, endDate);
+        }
+        try (Stream<Transaction> transactions = transactionStore.streamByCustomerIdAndDateBetween(customerId, startDate, endDate)) {
+            return calculateRewardsWithTransactions(customer, transactions);
+        }
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.example.customerrewardssystem.service;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Vector API implementation behind BatchPointsCalculator. All three tiers are computed for every lane and the
+ * result is picked with masks, so there are no branches. The arithmetic is the same as BatchPointsCalculator.points,
+ * operation for operation, and the double to int conversion matches the (int) cast, so results are bit-exact.
+ * Only loaded when the jdk.incubator.vector module is present.
+ */
+final class VectorizedPointsCalculator {
+    private static final VectorSpecies<Double> DOUBLES = DoubleVector.SPECIES_PREFERRED;
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+    // Same lane count as DOUBLES, so each converted vector fills an int vector exactly.
+    private static final VectorSpecies<Integer> INTS = VectorSpecies.of(int.class, VectorShape.forBitSize(DOUBLES.vectorBitSize() / 2));
+    private static final double TWO_POW_52 = 0x1p52;
+    private static final long TWO_POW_52_BITS = Double.doubleToRawLongBits(TWO_POW_52);
+
+    private VectorizedPointsCalculator() {
+    }
+
+    static boolean isSupported() {
+        return DOUBLES.length() > 1 && INTS.length() == DOUBLES.length() && LONGS.length() == DOUBLES.length();
+    }
+
+    static void calculatePoints(double[] amounts, int[] points, int length) {
+        int upperBound = DOUBLES.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += DOUBLES.length()) {
+            points(DoubleVector.fromArray(DOUBLES, amounts, i)).intoArray(points, i);
+        }
+        BatchPointsCalculator.calculatePointsScalar(amounts, points, i, length);
+    }
+
+    static void calculatePointsFromCents(long[] amountsInCents, int[] points, int length) {
+        int upperBound = LONGS.loopBound(length);
+        int i = 0;
+        for (; i < upperBound; i += LONGS.length()) {
+            DoubleVector amounts = (DoubleVector) LongVector.fromArray(LONGS, amountsInCents, i)
+                    .convert(VectorOperators.L2D, 0);
+            points(amounts.div(100.0)).intoArray(points, i);
+        }
+        BatchPointsCalculator.calculatePointsFromCentsScalar(amountsInCents, points, i, length);
+    }
+
+    private static IntVector points(DoubleVector amounts) {
+        DoubleVector middleTier = amounts.sub(50);
+        DoubleVector upperTier = amounts.sub(100).mul(2).add(50);
+        VectorMask<Double> atMost100 = amounts.compare(VectorOperators.LE, 100);
+        VectorMask<Double> atMost50 = amounts.compare(VectorOperators.LE, 50);
+        DoubleVector points = upperTier.blend(middleTier, atMost100).blend(0, atMost50);
+        return toInt(points);
+    }
+
+    // Equivalent to (int) for the values the tiers produce: zero, positive, +infinity or NaN.
+    // The D2I conversion is not compiled to vector instructions on JDK 17, so it is done with supported operations:
+    // clamp to the int range as the cast does, round by adding 2^52 (one unit in the last place at that magnitude),
+    // read the integer from the low bits, and step back by one where rounding went up, which gives truncation.
+    private static IntVector toInt(DoubleVector points) {
+        DoubleVector clamped = points.min(Integer.MAX_VALUE);
+        clamped = clamped.blend(0, clamped.compare(VectorOperators.NE, clamped));
+        DoubleVector shifted = clamped.add(TWO_POW_52);
+        VectorMask<Long> roundedUp = shifted.sub(TWO_POW_52).compare(VectorOperators.GT, clamped).cast(LONGS);
+        LongVector truncated = shifted.reinterpretAsLongs().sub(TWO_POW_52_BITS).sub(1, roundedUp);
+        return (IntVector) truncated.convertShape(VectorOperators.L2I, INTS, 0);
+    }
+}
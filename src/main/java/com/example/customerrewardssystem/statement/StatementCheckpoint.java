@@ -0,0 +1,63 @@
+package com.example.customerrewardssystem.statement;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Append-only record of the partitions a statement run has finished, so a restarted run skips them.
+ * The first line holds the run's parameters; a restart with different parameters is refused rather than mixing files.
+ * Each partition is recorded only after its file is complete and in place, and every append is forced to disk.
+ */
+class StatementCheckpoint {
+    private static final String PARTITION_PREFIX = "partition ";
+
+    private final Path file;
+    private final Set<Long> completed = new HashSet<>();
+
+    StatementCheckpoint(Path file, String parameters) throws IOException {
+        this.file = file;
+        if (Files.exists(file)) {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (lines.isEmpty() || !lines.get(0).equals(parameters)) {
+                throw new IllegalStateException("Checkpoint " + file + " was written with different parameters: "
+                        + (lines.isEmpty() ? "" : lines.get(0)) + "; remove it to start over");
+            }
+            for (String line : lines.subList(1, lines.size())) {
+                // A line cut short by a crash has no trailing fields; its partition simply runs again.
+                String[] fields = line.split(" ");
+                if (line.startsWith(PARTITION_PREFIX) && fields.length == 4) {
+                    completed.add(Long.parseLong(fields[1]));
+                }
+            }
+        } else {
+            append(parameters);
+        }
+    }
+
+    synchronized boolean isCompleted(long partition) {
+        return completed.contains(partition);
+    }
+
+    synchronized void markCompleted(long partition, int customers, long transactions) throws IOException {
+        append(PARTITION_PREFIX + partition + " " + customers + " " + transactions);
+        completed.add(partition);
+    }
+
+    private void append(String line) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.customerrewardssystem.statement;
+
+import com.example.customerrewardssystem.model.CustomerRewardsSummary;
+import com.example.customerrewardssystem.model.MonthlyReward;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes statements to a gzip-compressed file through a file channel, buffered on both sides of the compressor.
+ * Close it to finish the gzip stream and force the file to disk.
+ */
+class StatementFileWriter implements Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final StatementFormat format;
+    private final List<YearMonth> months;
+    private final ObjectWriter jsonWriter;
+    private final FileChannel channel;
+    private final GZIPOutputStream compressor;
+    private final Writer writer;
+
+    StatementFileWriter(Path file, StatementFormat format, List<YearMonth> months, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        this.months = months;
+        this.jsonWriter = objectMapper.writerFor(CustomerRewardsSummary.class);
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.compressor = new GZIPOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(compressor, StandardCharsets.UTF_8), BUFFER_SIZE);
+        if (format == StatementFormat.CSV) {
+            writer.write("customer_id,customer_name");
+            for (YearMonth month : months) {
+                writer.write(',');
+                writer.write(month.toString());
+            }
+            writer.write(",total_rewards\n");
+        }
+    }
+
+    void write(CustomerRewardsSummary summary) throws IOException {
+        if (format == StatementFormat.NDJSON) {
+            writer.write(jsonWriter.writeValueAsString(summary));
+        } else {
+            writer.write(String.valueOf(summary.getCustomerId()));
+            writer.write(',');
+            writer.write(csvField(summary.getCustomerName()));
+            for (YearMonth month : months) {
+                String key = month.toString();
+                int points = 0;
+                for (MonthlyReward reward : summary.getMonthlyRewards()) {
+                    if (reward.getMonth().equals(key)) {
+                        points = reward.getAmount();
+                    }
+                }
+                writer.write(',');
+                writer.write(Integer.toString(points));
+            }
+            writer.write(',');
+            writer.write(Integer.toString(summary.getTotalRewards()));
+        }
+        writer.write('\n');
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Closing the writer closes the channel too, so the data is forced to disk before that.
+        try (writer) {
+            writer.flush();
+            compressor.finish();
+            channel.force(true);
+        }
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
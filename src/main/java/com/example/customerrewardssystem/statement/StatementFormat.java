@@ -0,0 +1,21 @@
+package com.example.customerrewardssystem.statement;
+
+/**
+ * File formats for statements; both are gzip-compressed.
+ */
+public enum StatementFormat {
+    // One CustomerRewardsSummary JSON object per line.
+    NDJSON("ndjson.gz"),
+    // One row per customer, with a column for each month of the statement window.
+    CSV("csv.gz");
+
+    private final String extension;
+
+    StatementFormat(String extension) {
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.customerrewardssystem.statement;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.CustomerRewardsSummary;
+import com.example.customerrewardssystem.model.MonthlyReward;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository;
+import com.example.customerrewardssystem.service.BatchPointsCalculator;
+import com.example.customerrewardssystem.store.TransactionStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Month-end job that writes a rewards statement for every customer.
+ * Customers are partitioned into fixed id ranges that a worker pool processes in parallel. Each partition reads its
+ * customers once and its transactions from the transaction store in ordered chunked range scans, and writes one
+ * compressed file. Partition boundaries depend only on the partition size, so a restarted run can skip the partitions
+ * its checkpoint lists.
+ */
+@Component
+public class StatementJob {
+    private final TransactionRangeScanRepository transactionRangeScanRepository;
+    private final TransactionStore transactionStore;
+    private final ObjectMapper objectMapper;
+    private final int months;
+    private final int partitionSize;
+    private final int chunkSize;
+    private final int workers;
+
+    public StatementJob(TransactionRangeScanRepository transactionRangeScanRepository, TransactionStore transactionStore,
+                        ObjectMapper objectMapper,
+                        @Value("${rewards.statements.months:3}") int months,
+                        @Value("${rewards.statements.partition-size:1000}") int partitionSize,
+                        @Value("${rewards.statements.chunk-size:5000}") int chunkSize,
+                        @Value("${rewards.statements.workers:4}") int workers) {
+        if (months < 1 || partitionSize < 1 || chunkSize < 1 || workers < 1) {
+            throw new IllegalArgumentException("rewards.statements months, partition-size, chunk-size and workers must "
+                    + "be at least 1, got " + months + ", " + partitionSize + ", " + chunkSize + " and " + workers);
+        }
+        this.transactionRangeScanRepository = transactionRangeScanRepository;
+        this.transactionStore = transactionStore;
+        this.objectMapper = objectMapper;
+        this.months = months;
+        this.partitionSize = partitionSize;
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Writes the statements for the window of months ending with the given month to outputDirectory/month,
+     * resuming from that directory's checkpoint if an earlier run was interrupted.
+     *
+     * @return The totals of this run.
+     * @throws IllegalStateException If the directory holds a checkpoint written with different parameters.
+     */
+    public StatementJobReport run(YearMonth month, Path outputDirectory, StatementFormat format) throws IOException {
+        long started = System.nanoTime();
+        Path directory = Files.createDirectories(outputDirectory.resolve(month.toString()));
+        List<YearMonth> window = new ArrayList<>();
+        for (YearMonth m = month.minusMonths(months - 1L); !m.isAfter(month); m = m.plusMonths(1)) {
+            window.add(m);
+        }
+        StatementCheckpoint checkpoint = new StatementCheckpoint(directory.resolve("checkpoint"),
+                "format=" + format + " months=" + months + " partition-size=" + partitionSize);
+
+        Long minId = transactionRangeScanRepository.findMinCustomerId();
+        Long maxId = transactionRangeScanRepository.findMaxCustomerId();
+        List<Long> pending = new ArrayList<>();
+        int partitions = 0;
+        if (minId != null) {
+            for (long partition = minId / partitionSize; partition <= maxId / partitionSize; partition++) {
+                partitions++;
+                if (!checkpoint.isCompleted(partition)) {
+                    pending.add(partition);
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        long customers = 0;
+        long transactions = 0;
+        long bytesWritten = 0;
+        try {
+            List<Future<PartitionResult>> results = new ArrayList<>();
+            for (long partition : pending) {
+                results.add(executor.submit(() -> writePartition(partition, window, directory, format, checkpoint)));
+            }
+            for (Future<PartitionResult> result : results) {
+                PartitionResult partitionResult = result.get();
+                customers += partitionResult.customers();
+                transactions += partitionResult.transactions();
+                bytesWritten += partitionResult.bytesWritten();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Statement run for " + month + " was interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) {
+                throw ioException;
+            }
+            throw new IllegalStateException("Statement run for " + month + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return new StatementJobReport(month, partitions, partitions - pending.size(), customers, transactions,
+                bytesWritten, Duration.ofNanos(System.nanoTime() - started));
+    }
+
+    private record PartitionResult(int customers, long transactions, long bytesWritten) {
+    }
+
+    // Aggregates the partition's points per customer and month, then writes its file under a temporary name and
+    // moves it into place before recording the partition in the checkpoint.
+    private PartitionResult writePartition(long partition, List<YearMonth> window, Path directory, StatementFormat format,
+                                           StatementCheckpoint checkpoint) throws IOException {
+        long fromId = partition * partitionSize;
+        long toId = fromId + partitionSize;
+        List<Customer> customers = transactionRangeScanRepository.findCustomersInRange(fromId, toId);
+        long[] customerIds = customers.stream().mapToLong(Customer::getId).toArray();
+        int[][] points = new int[customers.size()][window.size()];
+        boolean[][] active = new boolean[customers.size()][window.size()];
+        YearMonth firstMonth = window.get(0);
+        LocalDate startDate = firstMonth.atDay(1);
+        LocalDate endDate = window.get(window.size() - 1).atEndOfMonth();
+
+        int[] chunkPoints = new int[chunkSize];
+        int[] customer = {0};
+        long transactions = transactionStore.scanTransactions(fromId, toId, startDate, endDate, chunkSize, chunk -> {
+            BatchPointsCalculator.calculatePoints(chunk.amounts(), chunkPoints, chunk.size());
+            for (int row = 0; row < chunk.size(); row++) {
+                // Both customers and transactions are ordered by customer id, so the matching customer is never behind.
+                while (customer[0] < customerIds.length && customerIds[customer[0]] < chunk.customerIds()[row]) {
+                    customer[0]++;
+                }
+                if (customer[0] < customerIds.length && customerIds[customer[0]] == chunk.customerIds()[row]) {
+                    int month = (int) ChronoUnit.MONTHS.between(firstMonth, YearMonth.from(chunk.dates()[row]));
+                    points[customer[0]][month] += chunkPoints[row];
+                    active[customer[0]][month] = true;
+                }
+            }
+        });
+
+        Path file = directory.resolve(String.format("part-%06d.%s", partition, format.getExtension()));
+        if (!customers.isEmpty()) {
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            try (StatementFileWriter writer = new StatementFileWriter(temporary, format, window, objectMapper)) {
+                for (int i = 0; i < customers.size(); i++) {
+                    writer.write(summary(customers.get(i), window, points[i], active[i]));
+                }
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        checkpoint.markCompleted(partition, customers.size(), transactions);
+        return new PartitionResult(customers.size(), transactions, customers.isEmpty() ? 0 : Files.size(file));
+    }
+
+    // Months without transactions are left out, as in the rewards endpoints.
+    private static CustomerRewardsSummary summary(Customer customer, List<YearMonth> window, int[] points, boolean[] active) {
+        List<MonthlyReward> monthlyRewards = new ArrayList<>();
+        int totalPoints = 0;
+        for (int month = 0; month < window.size(); month++) {
+            if (active[month]) {
+                monthlyRewards.add(new MonthlyReward(window.get(month).toString(), points[month]));
+                totalPoints += points[month];
+            }
+        }
+        return new CustomerRewardsSummary(customer.getId(), customer.getName(), monthlyRewards, totalPoints);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.customerrewardssystem.statement;
+
+import java.time.Duration;
+import java.time.YearMonth;
+
+/**
+ * Totals of a statement run. Partitions completed by an earlier run are counted as skipped, not in the totals.
+ */
+public record StatementJobReport(YearMonth month, int partitions, int skippedPartitions, long customers,
+                                 long transactions, long bytesWritten, Duration elapsed) {
+
+    public double customersPerSecond() {
+        return perSecond(customers);
+    }
+
+    public double transactionsPerSecond() {
+        return perSecond(transactions);
+    }
+
+    private double perSecond(long count) {
+        return elapsed.isZero() ? 0 : count * 1e9 / elapsed.toNanos();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Statements for %s: %d partitions (%d skipped from checkpoint), %d customers, "
+                        + "%d transactions, %.1f MB written in %.1f s (%.0f customers/s, %.0f transactions/s)",
+                month, partitions, skippedPartitions, customers, transactions, bytesWritten / 1e6,
+                elapsed.toMillis() / 1e3, customersPerSecond(), transactionsPerSecond());
+    }
+}
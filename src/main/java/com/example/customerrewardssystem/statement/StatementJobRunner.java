@@ -0,0 +1,45 @@
+package com.example.customerrewardssystem.statement;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+
+/**
+ * Runs the statement job at startup when rewards.statements.month is set, for example
+ * --rewards.statements.month=2024-03, and writes the throughput report next to the statements.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rewards.statements", name = "month")
+public class StatementJobRunner implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(StatementJobRunner.class);
+
+    private final StatementJob statementJob;
+    private final YearMonth month;
+    private final Path outputDirectory;
+    private final StatementFormat format;
+
+    public StatementJobRunner(StatementJob statementJob,
+                              @Value("${rewards.statements.month}") String month,
+                              @Value("${rewards.statements.output-dir:statements}") Path outputDirectory,
+                              @Value("${rewards.statements.format:NDJSON}") StatementFormat format) {
+        this.statementJob = statementJob;
+        this.month = YearMonth.parse(month);
+        this.outputDirectory = outputDirectory;
+        this.format = format;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        StatementJobReport report = statementJob.run(month, outputDirectory, format);
+        log.info("{}", report);
+        Files.writeString(outputDirectory.resolve(month.toString()).resolve("report.txt"), report + "\n");
+    }
+}
@@ -0,0 +1,517 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository.TransactionChunk;
+import com.example.customerrewardssystem.store.CustomerTransactionLog.Slice;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine that keeps every transaction in memory, in per-customer logs of primitive arrays ordered by
+ * epoch day, so a customer's date range is two binary searches and an array copy, with no SQL or entity hydration.
+ * <p>
+ * Writes go to a write-ahead log first and are applied in memory once it has been written (and forced, unless
+ * rewards.storage.append-only.fsync is false). A snapshot of all logs is taken periodically and at shutdown; each one
+ * starts a new WAL file, so startup loads the newest snapshot and replays only the WAL files written since.
+ * Files are named by generation: snapshot-N.bin holds everything before wal-N.log.
+ * <p>
+ * Transactions are read back with a Customer that only carries its id, unless the query was given a Customer.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rewards.storage", name = "engine", havingValue = "append-only")
+public class AppendOnlyTransactionStore implements TransactionStore, Closeable {
+    private static final Logger log = LoggerFactory.getLogger(AppendOnlyTransactionStore.class);
+    private static final Pattern SNAPSHOT_FILE = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final Pattern WAL_FILE = Pattern.compile("wal-(\\d+)\\.log");
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path directory;
+    private final boolean fsync;
+    private final ConcurrentSkipListMap<Long, CustomerTransactionLog> logs = new ConcurrentSkipListMap<>();
+    // Where each stored transaction id lives, so updates and deletes find it without scanning the logs.
+    // Guarded by writeLock once recovery is done.
+    private final Map<Long, Owner> owners = new HashMap<>();
+    // Serialises writers, so WAL order matches the order changes are applied in memory.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Object snapshotLock = new Object();
+    private final ScheduledExecutorService snapshotScheduler;
+    private long nextId = 1;
+    private long generation;
+    private long writesSinceSnapshot;
+    private TransactionWal wal;
+
+    public AppendOnlyTransactionStore(ApplicationEventPublisher eventPublisher,
+                                      @Value("${rewards.storage.append-only.directory:data/transactions}") Path directory,
+                                      @Value("${rewards.storage.append-only.fsync:true}") boolean fsync,
+                                      @Value("${rewards.storage.append-only.snapshot-interval:5m}") Duration snapshotInterval)
+            throws IOException {
+        this.eventPublisher = eventPublisher;
+        this.directory = Files.createDirectories(directory);
+        this.fsync = fsync;
+        recover();
+        wal = new TransactionWal(walFile(generation));
+        if (snapshotInterval.isZero() || snapshotInterval.isNegative()) {
+            snapshotScheduler = null;
+        } else {
+            snapshotScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "transaction-snapshot");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long millis = snapshotInterval.toMillis();
+            snapshotScheduler.scheduleWithFixedDelay(this::scheduledSnapshot, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        return saveAll(List.of(transaction)).get(0);
+    }
+
+    /**
+     * Saves the transactions as a single WAL batch with one sync, so after a crash either all or none of them are
+     * recovered. A transaction whose id is already stored replaces it.
+     */
+    @Override
+    public List<Transaction> saveAll(Iterable<Transaction> transactions) {
+        List<Transaction> saved = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            if (transaction.getCustomer() == null || transaction.getCustomer().getId() == null
+                    || transaction.getDate() == null || transaction.getAmount() == null) {
+                throw new IllegalArgumentException("Transactions need a customer id, a date and an amount");
+            }
+            saved.add(transaction);
+        }
+        List<TransactionChangedEvent> events = new ArrayList<>();
+        writeLock.lock();
+        try {
+            List<long[]> applied = new ArrayList<>();
+            long[] ids = new long[saved.size()];
+            long nextIdBefore = nextId;
+            wal.begin();
+            try {
+                for (int i = 0; i < saved.size(); i++) {
+                    Transaction transaction = saved.get(i);
+                    long customerId = transaction.getCustomer().getId();
+                    int epochDay = Math.toIntExact(transaction.getDate().toEpochDay());
+                    double amount = transaction.getAmount();
+                    TransactionChangedEvent.Type type = TransactionChangedEvent.Type.CREATED;
+                    long id;
+                    if (transaction.getId() == null) {
+                        id = nextId++;
+                    } else {
+                        id = transaction.getId();
+                        nextId = Math.max(nextId, id + 1);
+                        Owner owner = owners.get(id);
+                        if (owner != null) {
+                            wal.append(TransactionWal.DELETE, id, owner.customerId(), owner.epochDay(), 0);
+                            applied.add(new long[]{TransactionWal.DELETE, id, owner.customerId(), owner.epochDay(), 0});
+                            type = TransactionChangedEvent.Type.UPDATED;
+                            if (owner.customerId() != customerId) {
+                                // The previous owner's aggregates only need to be dropped.
+                                events.add(new TransactionChangedEvent(TransactionChangedEvent.Type.DELETED,
+                                        owner.customerId(), null, null));
+                            }
+                        }
+                    }
+                    wal.append(TransactionWal.APPEND, id, customerId, epochDay, amount);
+                    applied.add(new long[]{TransactionWal.APPEND, id, customerId, epochDay, Double.doubleToRawLongBits(amount)});
+                    ids[i] = id;
+                    events.add(new TransactionChangedEvent(type, customerId, transaction.getDate(), amount));
+                }
+                wal.commit(fsync);
+            } catch (IOException | RuntimeException e) {
+                // Nothing of a failed batch may reach memory or survive in the WAL.
+                nextId = nextIdBefore;
+                rollback(e);
+                throw e;
+            }
+            for (long[] record : applied) {
+                apply((byte) record[0], record[1], record[2], (int) record[3], Double.longBitsToDouble(record[4]));
+            }
+            for (int i = 0; i < saved.size(); i++) {
+                saved.get(i).setId(ids[i]);
+            }
+            writesSinceSnapshot += applied.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the transaction log", e);
+        } finally {
+            writeLock.unlock();
+        }
+        events.forEach(eventPublisher::publishEvent);
+        return saved;
+    }
+
+    @Override
+    public void delete(Transaction transaction) {
+        if (transaction.getId() == null) {
+            return;
+        }
+        Owner owner;
+        writeLock.lock();
+        try {
+            owner = owners.get(transaction.getId());
+            if (owner == null) {
+                return;
+            }
+            wal.begin();
+            try {
+                wal.append(TransactionWal.DELETE, transaction.getId(), owner.customerId(), owner.epochDay(), 0);
+                wal.commit(fsync);
+            } catch (IOException e) {
+                rollback(e);
+                throw e;
+            }
+            apply(TransactionWal.DELETE, transaction.getId(), owner.customerId(), owner.epochDay(), 0);
+            writesSinceSnapshot++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write the transaction log", e);
+        } finally {
+            writeLock.unlock();
+        }
+        eventPublisher.publishEvent(new TransactionChangedEvent(TransactionChangedEvent.Type.DELETED,
+                owner.customerId(), transaction.getDate(), transaction.getAmount()));
+    }
+
+    @Override
+    public long count() {
+        long count = 0;
+        for (CustomerTransactionLog customerLog : logs.values()) {
+            count += customerLog.size();
+        }
+        return count;
+    }
+
+    @Override
+    public List<Transaction> findByDateBetween(LocalDate startDate, LocalDate endDate) {
+        return findAll(startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    @Override
+    public List<Transaction> findByDateAfter(LocalDate startDate) {
+        return findAll(startDate.toEpochDay() + 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> findByDateBefore(LocalDate endDate) {
+        return findAll(Long.MIN_VALUE, endDate.toEpochDay() - 1);
+    }
+
+    @Override
+    public List<Transaction> findByCustomer(Customer customer) {
+        return find(customer, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateBetween(Customer customer, LocalDate startDate, LocalDate endDate) {
+        return find(customer, startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateAfter(Customer customer, LocalDate startDate) {
+        return find(customer, startDate.toEpochDay() + 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateBefore(Customer customer, LocalDate endDate) {
+        return find(customer, Long.MIN_VALUE, endDate.toEpochDay() - 1);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerId(Long customerId) {
+        return find(customerReference(customerId), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return find(customerReference(customerId), startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateAfter(Long customerId, LocalDate startDate) {
+        return find(customerReference(customerId), startDate.toEpochDay() + 1, Long.MAX_VALUE);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateBefore(Long customerId, LocalDate endDate) {
+        return find(customerReference(customerId), Long.MIN_VALUE, endDate.toEpochDay() - 1);
+    }
+
+    @Override
+    public Double sumAmountForCustomer(Customer customer) {
+        CustomerTransactionLog customerLog = logs.get(customer.getId());
+        return customerLog != null ? customerLog.sum(Long.MIN_VALUE, Long.MAX_VALUE) : null;
+    }
+
+    @Override
+    public Double sumMonthlyAmountForCustomer(Customer customer, LocalDate startDate, LocalDate endDate) {
+        CustomerTransactionLog customerLog = logs.get(customer.getId());
+        return customerLog != null ? customerLog.sum(startDate.toEpochDay(), endDate.toEpochDay()) : null;
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerId(Long customerId) {
+        return stream(customerReference(customerId), Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return stream(customerReference(customerId), startDate.toEpochDay(), endDate.toEpochDay());
+    }
+
+    /**
+     * Passes the transactions in chunks ordered by customer id, then by date.
+     */
+    @Override
+    public long scanTransactions(long fromCustomerId, long toCustomerId, LocalDate startDate, LocalDate endDate,
+                                 int chunkSize, Consumer<TransactionChunk> consumer) {
+        long[] customerIds = new long[chunkSize];
+        LocalDate[] dates = new LocalDate[chunkSize];
+        double[] amounts = new double[chunkSize];
+        int size = 0;
+        long total = 0;
+        if (fromCustomerId >= toCustomerId) {
+            return 0;
+        }
+        for (Map.Entry<Long, CustomerTransactionLog> entry
+                : logs.subMap(fromCustomerId, true, toCustomerId, false).entrySet()) {
+            Slice slice = entry.getValue().slice(startDate.toEpochDay(), endDate.toEpochDay());
+            for (int i = 0; i < slice.size(); i++) {
+                customerIds[size] = entry.getKey();
+                dates[size] = LocalDate.ofEpochDay(slice.epochDays()[i]);
+                amounts[size] = slice.amounts()[i];
+                if (++size == chunkSize) {
+                    consumer.accept(new TransactionChunk(customerIds, dates, amounts, size));
+                    total += size;
+                    size = 0;
+                }
+            }
+        }
+        if (size > 0) {
+            consumer.accept(new TransactionChunk(customerIds, dates, amounts, size));
+            total += size;
+        }
+        return total;
+    }
+
+    /**
+     * Writes a snapshot of every customer's log and deletes the files it replaces.
+     * Writers are only held up while the WAL is rotated and the logs are copied, not while the file is written.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            Map<Long, Slice> copy = new LinkedHashMap<>();
+            long snapshotNextId;
+            long snapshotGeneration;
+            writeLock.lock();
+            try {
+                wal.close();
+                wal = new TransactionWal(walFile(generation + 1));
+                generation++;
+                for (Map.Entry<Long, CustomerTransactionLog> entry : logs.entrySet()) {
+                    copy.put(entry.getKey(), entry.getValue().slice(Long.MIN_VALUE, Long.MAX_VALUE));
+                }
+                snapshotNextId = nextId;
+                snapshotGeneration = generation;
+                writesSinceSnapshot = 0;
+            } finally {
+                writeLock.unlock();
+            }
+            TransactionSnapshot.write(snapshotFile(snapshotGeneration), snapshotNextId, copy);
+            deleteBefore(snapshotGeneration);
+        }
+    }
+
+    /**
+     * Stops periodic snapshots and takes a final one, so the next start has no WAL to replay.
+     */
+    @Override
+    public void close() throws IOException {
+        if (snapshotScheduler != null) {
+            snapshotScheduler.shutdown();
+        }
+        synchronized (snapshotLock) {
+            if (writesSinceSnapshot() > 0) {
+                snapshot();
+            }
+            wal.close();
+        }
+    }
+
+    private void scheduledSnapshot() {
+        try {
+            if (writesSinceSnapshot() > 0) {
+                snapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Transaction snapshot failed; the WAL still holds every change", e);
+        }
+    }
+
+    private long writesSinceSnapshot() {
+        writeLock.lock();
+        try {
+            return writesSinceSnapshot;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Loads the newest snapshot, replays the WAL files written after it and removes the files older than the snapshot.
+     */
+    private void recover() throws IOException {
+        long snapshotGeneration = -1;
+        TreeMap<Long, Path> walFiles = new TreeMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+                Matcher walFile = WAL_FILE.matcher(name);
+                if (snapshot.matches()) {
+                    snapshotGeneration = Math.max(snapshotGeneration, Long.parseLong(snapshot.group(1)));
+                } else if (walFile.matches()) {
+                    walFiles.put(Long.parseLong(walFile.group(1)), file);
+                } else if (name.endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+        if (snapshotGeneration >= 0) {
+            nextId = TransactionSnapshot.read(snapshotFile(snapshotGeneration),
+                    (customerId, slice) -> {
+                        logs.put(customerId, new CustomerTransactionLog(slice));
+                        for (int i = 0; i < slice.size(); i++) {
+                            owners.put(slice.ids()[i], new Owner(customerId, slice.epochDays()[i]));
+                        }
+                    });
+            generation = snapshotGeneration;
+        }
+        for (Map.Entry<Long, Path> walFile : walFiles.tailMap(Math.max(snapshotGeneration, 0), true).entrySet()) {
+            writesSinceSnapshot += TransactionWal.replay(walFile.getValue(), this::apply);
+            generation = walFile.getKey();
+        }
+        // Only files the loaded snapshot covers can go; the replayed WAL files stay until a snapshot covers them.
+        if (snapshotGeneration >= 0) {
+            deleteBefore(snapshotGeneration);
+        }
+    }
+
+    private void rollback(Exception cause) {
+        try {
+            wal.rollback();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    // Applies a change that is already in the WAL; also used for replay.
+    private void apply(byte type, long id, long customerId, int epochDay, double amount) {
+        if (type == TransactionWal.APPEND) {
+            logs.computeIfAbsent(customerId, key -> new CustomerTransactionLog()).add(id, epochDay, amount);
+            owners.put(id, new Owner(customerId, epochDay));
+            nextId = Math.max(nextId, id + 1);
+        } else if (type == TransactionWal.DELETE) {
+            owners.remove(id);
+            CustomerTransactionLog customerLog = logs.get(customerId);
+            if (customerLog != null) {
+                customerLog.remove(id, epochDay);
+            }
+        }
+    }
+
+    // The customer log holding a transaction and its epoch day, which is where in the log to look for it.
+    private record Owner(long customerId, int epochDay) {
+    }
+
+    private void deleteBefore(long keepGeneration) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                Matcher snapshot = SNAPSHOT_FILE.matcher(name);
+                Matcher walFile = WAL_FILE.matcher(name);
+                if (snapshot.matches() && Long.parseLong(snapshot.group(1)) < keepGeneration
+                        || walFile.matches() && Long.parseLong(walFile.group(1)) < keepGeneration) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private List<Transaction> findAll(long fromDay, long toDay) {
+        List<Transaction> transactions = new ArrayList<>();
+        for (Map.Entry<Long, CustomerTransactionLog> entry : logs.entrySet()) {
+            addTransactions(transactions, entry.getValue().slice(fromDay, toDay), customerReference(entry.getKey()));
+        }
+        return transactions;
+    }
+
+    private List<Transaction> find(Customer customer, long fromDay, long toDay) {
+        List<Transaction> transactions = new ArrayList<>();
+        CustomerTransactionLog customerLog = logs.get(customer.getId());
+        if (customerLog != null) {
+            addTransactions(transactions, customerLog.slice(fromDay, toDay), customer);
+        }
+        return transactions;
+    }
+
+    // Transactions are created as the stream is consumed; only the primitive columns are copied up front.
+    private Stream<Transaction> stream(Customer customer, long fromDay, long toDay) {
+        CustomerTransactionLog customerLog = logs.get(customer.getId());
+        Slice slice = customerLog != null ? customerLog.slice(fromDay, toDay) : Slice.EMPTY;
+        return IntStream.range(0, slice.size()).mapToObj(i -> transaction(slice, i, customer));
+    }
+
+    private static void addTransactions(List<Transaction> transactions, Slice slice, Customer customer) {
+        for (int i = 0; i < slice.size(); i++) {
+            transactions.add(transaction(slice, i, customer));
+        }
+    }
+
+    private static Transaction transaction(Slice slice, int i, Customer customer) {
+        return new Transaction(slice.ids()[i], LocalDate.ofEpochDay(slice.epochDays()[i]), slice.amounts()[i], customer);
+    }
+
+    private static Customer customerReference(Long customerId) {
+        return new Customer(customerId, null, null);
+    }
+
+    private Path snapshotFile(long snapshotGeneration) {
+        return directory.resolve("snapshot-" + snapshotGeneration + ".bin");
+    }
+
+    private Path walFile(long walGeneration) {
+        return directory.resolve("wal-" + walGeneration + ".log");
+    }
+}
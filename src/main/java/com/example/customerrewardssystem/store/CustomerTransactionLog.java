@@ -0,0 +1,148 @@
+package com.example.customerrewardssystem.store;
+
+import java.util.Arrays;
+
+/**
+ * One customer's transactions in parallel primitive arrays ordered by epoch day, then by insertion.
+ * Appends in date order are amortised O(1); a backdated transaction shifts the later entries along.
+ * Date ranges are found by binary search and copied out, so readers never see the arrays being changed.
+ * All methods are synchronized on the log.
+ */
+final class CustomerTransactionLog {
+    private long[] ids;
+    private int[] epochDays;
+    private double[] amounts;
+    private int size;
+
+    CustomerTransactionLog() {
+        this(4);
+    }
+
+    CustomerTransactionLog(int capacity) {
+        ids = new long[Math.max(capacity, 1)];
+        epochDays = new int[ids.length];
+        amounts = new double[ids.length];
+    }
+
+    // Starts from a copy of a slice, such as one read from a snapshot.
+    CustomerTransactionLog(Slice slice) {
+        this(slice.size());
+        System.arraycopy(slice.ids(), 0, ids, 0, slice.size());
+        System.arraycopy(slice.epochDays(), 0, epochDays, 0, slice.size());
+        System.arraycopy(slice.amounts(), 0, amounts, 0, slice.size());
+        size = slice.size();
+    }
+
+    /**
+     * A copy of some of a log's transactions, ordered by epoch day.
+     */
+    record Slice(long[] ids, int[] epochDays, double[] amounts) {
+        static final Slice EMPTY = new Slice(new long[0], new int[0], new double[0]);
+
+        int size() {
+            return ids.length;
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized void add(long id, int epochDay, double amount) {
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            epochDays = Arrays.copyOf(epochDays, capacity);
+            amounts = Arrays.copyOf(amounts, capacity);
+        }
+        int position = size == 0 || epochDays[size - 1] <= epochDay ? size : upperBound(epochDay);
+        int moved = size - position;
+        if (moved > 0) {
+            System.arraycopy(ids, position, ids, position + 1, moved);
+            System.arraycopy(epochDays, position, epochDays, position + 1, moved);
+            System.arraycopy(amounts, position, amounts, position + 1, moved);
+        }
+        ids[position] = id;
+        epochDays[position] = epochDay;
+        amounts[position] = amount;
+        size++;
+    }
+
+    /**
+     * Removes the transaction with the given id, looking only among the entries dated epochDay.
+     *
+     * @return Whether the log held it.
+     */
+    synchronized boolean remove(long id, int epochDay) {
+        for (int i = lowerBound(epochDay), end = upperBound(epochDay); i < end; i++) {
+            if (ids[i] == id) {
+                int moved = size - i - 1;
+                System.arraycopy(ids, i + 1, ids, i, moved);
+                System.arraycopy(epochDays, i + 1, epochDays, i, moved);
+                System.arraycopy(amounts, i + 1, amounts, i, moved);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the transactions dated fromDay to toDay inclusive.
+     */
+    synchronized Slice slice(long fromDay, long toDay) {
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        if (from >= to) {
+            return Slice.EMPTY;
+        }
+        return new Slice(Arrays.copyOfRange(ids, from, to), Arrays.copyOfRange(epochDays, from, to),
+                Arrays.copyOfRange(amounts, from, to));
+    }
+
+    /**
+     * Sums the amounts dated fromDay to toDay inclusive, or returns null when there are none.
+     */
+    synchronized Double sum(long fromDay, long toDay) {
+        int from = lowerBound(fromDay);
+        int to = upperBound(toDay);
+        if (from >= to) {
+            return null;
+        }
+        double sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += amounts[i];
+        }
+        return sum;
+    }
+
+    // Index of the first entry dated on or after day.
+    private int lowerBound(long day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Index of the first entry dated after day.
+    private int upperBound(long day) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (epochDays[mid] <= day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository.TransactionChunk;
+import com.example.customerrewardssystem.repository.TransactionRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Default storage engine: transactions live in the relational database and are read through TransactionRepository.
+ * Change events come from the entity listener on Transaction.
+ */
+@Component
+@ConditionalOnProperty(prefix = "rewards.storage", name = "engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaTransactionStore implements TransactionStore {
+    private final TransactionRepository transactionRepository;
+    private final TransactionRangeScanRepository transactionRangeScanRepository;
+
+    public JpaTransactionStore(TransactionRepository transactionRepository,
+                               TransactionRangeScanRepository transactionRangeScanRepository) {
+        this.transactionRepository = transactionRepository;
+        this.transactionRangeScanRepository = transactionRangeScanRepository;
+    }
+
+    @Override
+    public Transaction save(Transaction transaction) {
+        return transactionRepository.save(transaction);
+    }
+
+    @Override
+    public List<Transaction> saveAll(Iterable<Transaction> transactions) {
+        return transactionRepository.saveAll(transactions);
+    }
+
+    @Override
+    public void delete(Transaction transaction) {
+        transactionRepository.delete(transaction);
+    }
+
+    @Override
+    public long count() {
+        return transactionRepository.count();
+    }
+
+    @Override
+    public List<Transaction> findByDateBetween(LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.findByDateBetween(startDate, endDate);
+    }
+
+    @Override
+    public List<Transaction> findByDateAfter(LocalDate startDate) {
+        return transactionRepository.findByDateAfter(startDate);
+    }
+
+    @Override
+    public List<Transaction> findByDateBefore(LocalDate endDate) {
+        return transactionRepository.findByDateBefore(endDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomer(Customer customer) {
+        return transactionRepository.findByCustomer(customer);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateBetween(Customer customer, LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.findByCustomerAndDateBetween(customer, startDate, endDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateAfter(Customer customer, LocalDate startDate) {
+        return transactionRepository.findByCustomerAndDateAfter(customer, startDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerAndDateBefore(Customer customer, LocalDate endDate) {
+        return transactionRepository.findByCustomerAndDateBefore(customer, endDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerId(Long customerId) {
+        return transactionRepository.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.findByCustomerIdAndDateBetween(customerId, startDate, endDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateAfter(Long customerId, LocalDate startDate) {
+        return transactionRepository.findByCustomerIdAndDateAfter(customerId, startDate);
+    }
+
+    @Override
+    public List<Transaction> findByCustomerIdAndDateBefore(Long customerId, LocalDate endDate) {
+        return transactionRepository.findByCustomerIdAndDateBefore(customerId, endDate);
+    }
+
+    @Override
+    public Double sumAmountForCustomer(Customer customer) {
+        return transactionRepository.sumAmountForCustomer(customer);
+    }
+
+    @Override
+    public Double sumMonthlyAmountForCustomer(Customer customer, LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.sumMonthlyAmountForCustomer(customer, startDate, endDate);
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerId(Long customerId) {
+        return transactionRepository.streamByCustomerId(customerId);
+    }
+
+    @Override
+    public Stream<Transaction> streamByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate) {
+        return transactionRepository.streamByCustomerIdAndDateBetween(customerId, startDate, endDate);
+    }
+
+    @Override
+    public long scanTransactions(long fromCustomerId, long toCustomerId, LocalDate startDate, LocalDate endDate,
+                                 int chunkSize, Consumer<TransactionChunk> consumer) {
+        return transactionRangeScanRepository.scanTransactions(fromCustomerId, toCustomerId, startDate, endDate,
+                chunkSize, consumer);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.store.CustomerTransactionLog.Slice;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Point-in-time copy of every customer's transaction log: a header with the next id, then per customer its id and
+ * its id, epoch-day and amount columns, then a CRC32 of everything before it.
+ * The file is written beside its target, forced to disk and atomically renamed, so a snapshot is either complete or absent.
+ */
+final class TransactionSnapshot {
+    private static final int MAGIC = 0x52575453;
+    private static final int VERSION = 1;
+
+    private TransactionSnapshot() {
+    }
+
+    /**
+     * Writes the logs to file, replacing it.
+     */
+    static void write(Path file, long nextId, Map<Long, Slice> logs) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream raw = Channels.newOutputStream(channel);
+            CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32());
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checked, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(nextId);
+            out.writeInt(logs.size());
+            for (Map.Entry<Long, Slice> entry : logs.entrySet()) {
+                Slice slice = entry.getValue();
+                out.writeLong(entry.getKey());
+                out.writeInt(slice.size());
+                for (long id : slice.ids()) {
+                    out.writeLong(id);
+                }
+                for (int epochDay : slice.epochDays()) {
+                    out.writeInt(epochDay);
+                }
+                for (double amount : slice.amounts()) {
+                    out.writeDouble(amount);
+                }
+            }
+            out.flush();
+            new DataOutputStream(raw).writeLong(checked.getChecksum().getValue());
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Passes each customer's log in the file to the consumer.
+     *
+     * @return The next id recorded in the snapshot.
+     * @throws IOException If the file is not a complete snapshot.
+     */
+    static long read(Path file, BiConsumer<Long, Slice> consumer) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a transaction snapshot: " + file);
+            }
+            long nextId = in.readLong();
+            int customers = in.readInt();
+            for (int c = 0; c < customers; c++) {
+                long customerId = in.readLong();
+                int size = in.readInt();
+                long[] ids = new long[size];
+                int[] epochDays = new int[size];
+                double[] amounts = new double[size];
+                for (int i = 0; i < size; i++) {
+                    ids[i] = in.readLong();
+                }
+                for (int i = 0; i < size; i++) {
+                    epochDays[i] = in.readInt();
+                }
+                for (int i = 0; i < size; i++) {
+                    amounts[i] = in.readDouble();
+                }
+                consumer.accept(customerId, new Slice(ids, epochDays, amounts));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readLong() != expected) {
+                throw new IOException("Corrupt transaction snapshot: " + file);
+            }
+            return nextId;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository.TransactionChunk;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Storage engine for transactions, selected with rewards.storage.engine.
+ * The query methods mirror TransactionRepository, so "After" and "Before" exclude the given date and the sums are
+ * null when the customer has no matching transactions. Writes publish TransactionChangedEvents like the JPA entity
+ * listener does, so the rewards aggregates stay current whichever engine is active.
+ */
+public interface TransactionStore {
+    // Save a transaction, assigning an id to a new one.
+    Transaction save(Transaction transaction);
+
+    // Save several transactions.
+    List<Transaction> saveAll(Iterable<Transaction> transactions);
+
+    // Delete a transaction by its id.
+    void delete(Transaction transaction);
+
+    // Count all transactions.
+    long count();
+
+    // Find transactions between two dates.
+    List<Transaction> findByDateBetween(LocalDate startDate, LocalDate endDate);
+
+    // Find transactions starting from a specific date or after.
+    List<Transaction> findByDateAfter(LocalDate startDate);
+
+    // Find transactions ending on a specific date or before.
+    List<Transaction> findByDateBefore(LocalDate endDate);
+
+    // Find transactions for a specific customer.
+    List<Transaction> findByCustomer(Customer customer);
+
+    // Find transactions for a customer between two dates.
+    List<Transaction> findByCustomerAndDateBetween(Customer customer, LocalDate startDate, LocalDate endDate);
+
+    // Find transactions for a customer starting from a specific date or after.
+    List<Transaction> findByCustomerAndDateAfter(Customer customer, LocalDate startDate);
+
+    // Find transactions for a customer ending on a specific date or before.
+    List<Transaction> findByCustomerAndDateBefore(Customer customer, LocalDate endDate);
+
+    // Find transactions for a customer identified by ID.
+    List<Transaction> findByCustomerId(Long customerId);
+
+    // Find transactions for a customer identified by ID between two dates.
+    List<Transaction> findByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate);
+
+    // Find transactions for a customer identified by ID starting from a specific date or after.
+    List<Transaction> findByCustomerIdAndDateAfter(Long customerId, LocalDate startDate);
+
+    // Find transactions for a customer identified by ID ending on a specific date or before.
+    List<Transaction> findByCustomerIdAndDateBefore(Long customerId, LocalDate endDate);
+
+    // Calculate the sum of transaction amounts for a specific customer.
+    Double sumAmountForCustomer(Customer customer);
+
+    // Calculate the sum of transaction amounts for a customer in a specific date range.
+    Double sumMonthlyAmountForCustomer(Customer customer, LocalDate startDate, LocalDate endDate);
+
+    // Stream transactions for a customer identified by ID; the stream must be closed.
+    Stream<Transaction> streamByCustomerId(Long customerId);
+
+    // Stream transactions for a customer identified by ID between two dates; the stream must be closed.
+    Stream<Transaction> streamByCustomerIdAndDateBetween(Long customerId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Passes the transactions of customers with fromCustomerId <= id < toCustomerId, dated between startDate and
+     * endDate inclusive, to the consumer in chunks of up to chunkSize, ordered by customer id.
+     *
+     * @return The number of transactions read.
+     */
+    long scanTransactions(long fromCustomerId, long toCustomerId, LocalDate startDate, LocalDate endDate,
+                          int chunkSize, Consumer<TransactionChunk> consumer);
+}
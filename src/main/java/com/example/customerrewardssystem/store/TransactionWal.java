@@ -0,0 +1,185 @@
+package com.example.customerrewardssystem.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of transaction appends and deletes in fixed-size binary records, each ending in a CRC32.
+ * Writes are grouped in batches: records appended after begin are either kept by commit, which ends the batch with a
+ * COMMIT record holding its record count, or discarded by rollback, which also cuts off whatever the batch had
+ * already written to the file.
+ * A batch only counts once its COMMIT record is on disk. Replay applies a batch only when it reaches that record, and
+ * stops at the first short or corrupt record or at a batch without one, which is where a crash interrupted the last
+ * write. It cuts the file at the start of that batch, so a crash part way through a batch, such as between the
+ * DELETE and APPEND of an update, leaves none of it behind.
+ * Not thread-safe; the store serialises writers.
+ */
+final class TransactionWal implements Closeable {
+    static final byte APPEND = 1;
+    static final byte DELETE = 2;
+    static final byte COMMIT = 3;
+    // type, id, customer id, epoch day, amount, CRC32
+    static final int RECORD_SIZE = 1 + 8 + 8 + 4 + 8 + 4;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 256);
+    private final CRC32 crc = new CRC32();
+    private long batchStart;
+    private long batchRecords;
+    // Set when a rollback could not cut the file, which then may end in records that were never applied.
+    private boolean unusable;
+
+    /**
+     * Receives replayed records in the order they were written.
+     */
+    interface RecordHandler {
+        void accept(byte type, long id, long customerId, int epochDay, double amount);
+    }
+
+    TransactionWal(Path file) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Starts a batch at the current end of the file.
+     */
+    void begin() throws IOException {
+        if (unusable) {
+            throw new IOException("The transaction log could not be rolled back and must be recovered by a restart");
+        }
+        buffer.clear();
+        batchStart = channel.size();
+        batchRecords = 0;
+    }
+
+    /**
+     * Discards the records appended since begin, both those still buffered and those already written.
+     */
+    void rollback() throws IOException {
+        buffer.clear();
+        try {
+            channel.truncate(batchStart);
+            channel.force(false);
+        } catch (IOException e) {
+            unusable = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Buffers a record of the current batch; it is written by commit, or earlier once the buffer fills.
+     */
+    void append(byte type, long id, long customerId, int epochDay, double amount) throws IOException {
+        put(type, id, customerId, epochDay, amount);
+        batchRecords++;
+    }
+
+    /**
+     * Ends the batch with its COMMIT record and writes it; if force is set, waits until it is on disk.
+     */
+    void commit(boolean force) throws IOException {
+        put(COMMIT, batchRecords, 0, 0, 0);
+        write();
+        if (force) {
+            channel.force(false);
+        }
+        batchRecords = 0;
+    }
+
+    private void put(byte type, long id, long customerId, int epochDay, double amount) throws IOException {
+        if (buffer.remaining() < RECORD_SIZE) {
+            write();
+        }
+        int start = buffer.position();
+        buffer.put(type).putLong(id).putLong(customerId).putInt(epochDay).putDouble(amount);
+        crc.reset();
+        crc.update(buffer.duplicate().position(start).limit(buffer.position()));
+        buffer.putInt((int) crc.getValue());
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            // Records of an uncommitted batch may be written here; replay ignores them.
+            write();
+            channel.force(false);
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Passes the records of every committed batch in the file to the handler and truncates anything after the last
+     * committed batch.
+     *
+     * @return The number of records replayed, not counting COMMIT records.
+     */
+    static long replay(Path file, RecordHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096);
+            CRC32 crc = new CRC32();
+            // Records of the batch being read, held back until its COMMIT record: type, id, customer id, epoch day,
+            // amount bits.
+            List<long[]> batch = new ArrayList<>();
+            long read = 0;
+            long valid = 0;
+            long records = 0;
+            boolean corrupt = false;
+            while (!corrupt && channel.read(buffer) > 0) {
+                buffer.flip();
+                while (buffer.remaining() >= RECORD_SIZE) {
+                    int start = buffer.position();
+                    crc.reset();
+                    crc.update(buffer.duplicate().limit(start + RECORD_SIZE - 4));
+                    if (buffer.getInt(start + RECORD_SIZE - 4) != (int) crc.getValue()) {
+                        corrupt = true;
+                        break;
+                    }
+                    byte type = buffer.get();
+                    long id = buffer.getLong();
+                    long customerId = buffer.getLong();
+                    int epochDay = buffer.getInt();
+                    double amount = buffer.getDouble();
+                    buffer.getInt();
+                    read += RECORD_SIZE;
+                    if (type != COMMIT) {
+                        batch.add(new long[]{type, id, customerId, epochDay, Double.doubleToRawLongBits(amount)});
+                        continue;
+                    }
+                    if (id != batch.size()) {
+                        corrupt = true;
+                        break;
+                    }
+                    for (long[] record : batch) {
+                        handler.accept((byte) record[0], record[1], record[2], (int) record[3],
+                                Double.longBitsToDouble(record[4]));
+                    }
+                    records += batch.size();
+                    batch.clear();
+                    valid = read;
+                }
+                buffer.compact();
+            }
+            if (channel.size() > valid) {
+                channel.truncate(valid);
+                channel.force(false);
+            }
+            return records;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.customerrewardssystem.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DailyPointsIndexCacheTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    /**
+     * Test that an index built while a write for another customer lands is still cached.
+     */
+    @Test
+    void testWriteForOtherCustomerKeepsLoadedIndex() {
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        DailyPointsIndex loaded = cache.getOrLoad(1L, () -> {
+            cache.evict(2L);
+            return index(90);
+        });
+        assertSame(loaded, cache.getOrLoad(1L, () -> fail("index should be cached")));
+    }
+
+    /**
+     * Test that an index built while a write for the same customer lands is returned but not cached,
+     * so the next request rebuilds it with the write included.
+     */
+    @Test
+    void testWriteForSameCustomerDiscardsLoadedIndex() {
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        DailyPointsIndex stale = cache.getOrLoad(1L, () -> {
+            cache.evict(1L);
+            return index(90);
+        });
+        assertEquals(90, stale.points(DAY, DAY));
+        assertEquals(140, cache.getOrLoad(1L, () -> index(140)).points(DAY, DAY));
+    }
+
+    /**
+     * Test that a new transaction is added to the cached index in place, with the cache's byte count following the
+     * index as it grows.
+     */
+    @Test
+    void testAddsNewTransactionToCachedIndex() {
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        DailyPointsIndex cached = cache.getOrLoad(1L, () -> index(90));
+        cache.beginWrite(1L);
+        cache.add(1L, DAY.plusYears(1), 50);
+
+        assertSame(cached, cache.getOrLoad(1L, () -> fail("index should be cached")));
+        assertEquals(140, cached.points(DAY, DAY.plusYears(1)));
+        assertEquals(cached.sizeInBytes(), cache.getBytes());
+        assertTrue(cached.sizeInBytes() > index(90).sizeInBytes());
+    }
+
+    /**
+     * Test that an index built while a new transaction for the customer is not yet visible is returned but not
+     * cached, since it may or may not hold the transaction, and that adding it afterwards leaves nothing cached.
+     */
+    @Test
+    void testIndexBuiltDuringOpenWriteIsNotCached() {
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        cache.beginWrite(1L);
+        assertEquals(90, cache.getOrLoad(1L, () -> index(90)).points(DAY, DAY));
+        cache.add(1L, DAY, 50);
+
+        assertEquals(140, cache.getOrLoad(1L, () -> index(140)).points(DAY, DAY));
+        assertSame(cache.getOrLoad(1L, () -> fail("index should be cached")), cache.getOrLoad(1L, () -> index(0)));
+    }
+
+    /**
+     * Test that an index older than the max age is rebuilt, so writes this instance never saw reach readers within
+     * that bound, and that the rebuilt index replaces it in the byte count.
+     */
+    @Test
+    void testIndexExpiresAfterMaxAge() {
+        AtomicLong now = new AtomicLong();
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5), now::get);
+        DailyPointsIndex cached = cache.getOrLoad(1L, () -> index(90));
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertSame(cached, cache.getOrLoad(1L, () -> fail("index should be cached")));
+
+        now.incrementAndGet();
+        assertEquals(140, cache.getOrLoad(1L, () -> index(140)).points(DAY, DAY));
+        assertEquals(140, cache.getOrLoad(1L, () -> fail("index should be cached")).points(DAY, DAY));
+        assertEquals(index(140).sizeInBytes(), cache.getBytes());
+    }
+
+    /**
+     * Test that the cache stays within its byte budget by dropping the least recently used indexes,
+     * and that an index larger than the whole budget is returned but not cached.
+     */
+    @Test
+    void testBoundedByIndexSize() {
+        long indexBytes = index(1).sizeInBytes();
+        DailyPointsIndexCache cache = new DailyPointsIndexCache(true, 2 * indexBytes, Duration.ofMinutes(5));
+        cache.getOrLoad(1L, () -> index(10));
+        cache.getOrLoad(2L, () -> index(20));
+        cache.getOrLoad(1L, () -> fail("index should be cached"));
+        cache.getOrLoad(3L, () -> index(30));
+        assertEquals(2 * indexBytes, cache.getBytes());
+        assertEquals(10, cache.getOrLoad(1L, () -> fail("index should be cached")).points(DAY, DAY));
+        assertEquals(22, cache.getOrLoad(2L, () -> index(22)).points(DAY, DAY));
+
+        DailyPointsIndex wide = index(5);
+        wide.add(DAY.plusYears(10), 5);
+        assertSame(wide, cache.getOrLoad(4L, () -> wide));
+        assertEquals(2 * indexBytes, cache.getBytes());
+        assertEquals(6, cache.getOrLoad(4L, () -> index(6)).points(DAY, DAY));
+    }
+
+    private static DailyPointsIndex index(int points) {
+        DailyPointsIndex index = new DailyPointsIndex();
+        index.add(DAY, points);
+        return index;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.customerrewardssystem.aggregate;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DailyPointsIndexTest {
+
+    /**
+     * Test that range sums match a brute-force scan when days are added in random order,
+     * which forces the index to grow in both directions and rebuild several times.
+     */
+    @Test
+    void testRangeSumsMatchScanForOutOfOrderInserts() {
+        Random random = new Random(7);
+        LocalDate origin = LocalDate.of(2020, 1, 1);
+        DailyPointsIndex index = new DailyPointsIndex();
+        List<LocalDate> dates = new ArrayList<>();
+        List<Integer> points = new ArrayList<>();
+
+        for (int i = 0; i < 2_000; i++) {
+            LocalDate date = origin.plusDays(random.nextInt(1_500) - 750);
+            int value = random.nextInt(300);
+            index.add(date, value);
+            dates.add(date);
+            points.add(value);
+        }
+
+        for (int i = 0; i < 500; i++) {
+            LocalDate start = origin.plusDays(random.nextInt(2_000) - 1_000);
+            LocalDate end = start.plusDays(random.nextInt(400));
+            long expectedPoints = 0;
+            long expectedCount = 0;
+            for (int j = 0; j < dates.size(); j++) {
+                if (!dates.get(j).isBefore(start) && !dates.get(j).isAfter(end)) {
+                    expectedPoints += points.get(j);
+                    expectedCount++;
+                }
+            }
+            assertEquals(expectedPoints, index.points(start, end), "points " + start + ".." + end);
+            assertEquals(expectedCount, index.count(start, end), "count " + start + ".." + end);
+        }
+    }
+
+    /**
+     * Test that an empty index and inverted ranges return zero.
+     */
+    @Test
+    void testEmptyAndInvertedRanges() {
+        DailyPointsIndex index = new DailyPointsIndex();
+        assertTrue(index.isEmpty());
+        assertEquals(0, index.points(LocalDate.MIN, LocalDate.MAX));
+
+        index.add(LocalDate.of(2024, 2, 29), 25);
+        assertEquals(25, index.points(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 2, 29)));
+        assertEquals(0, index.points(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 2, 1)));
+        assertEquals(1, index.count(LocalDate.of(2000, 1, 1), LocalDate.of(2100, 1, 1)));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.customerrewardssystem.aggregate;
+
+import com.example.customerrewardssystem.model.MonthlyReward;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class OffHeapRewardsStoreTest {
+
+    /**
+     * Test that rehydrated monthly points are read back in month order, and that an evicted customer is a miss.
+     */
+    @Test
+    void testRehydrateReadAndEvict() {
+        OffHeapRewardsStore store = new OffHeapRewardsStore(true, 64, Duration.ofMinutes(5));
+        assertEquals(OffHeapRewardsStore.Lookup.MISS, store.read(7L, (month, points) -> fail()));
+
+        store.rehydrate(7L, store.modificationStamp(7L), List.of(
+                new MonthlyReward("2024-03", 40), new MonthlyReward("2024-01", 90), new MonthlyReward("2024-02", 0)));
+        Map<YearMonth, Integer> months = read(store, 7L);
+        assertEquals(List.of(YearMonth.of(2024, 1), YearMonth.of(2024, 2), YearMonth.of(2024, 3)), new ArrayList<>(months.keySet()));
+        assertEquals(0, months.get(YearMonth.of(2024, 2)));
+
+        store.evict(7L);
+        assertEquals(OffHeapRewardsStore.Lookup.MISS, store.read(7L, (month, points) -> fail()));
+    }
+
+    /**
+     * Test that a record older than the max age is a miss, so writes this instance never saw reach readers within
+     * that bound, and that rehydrating it starts the age again.
+     */
+    @Test
+    void testRecordExpiresAfterMaxAge() {
+        AtomicLong now = new AtomicLong();
+        OffHeapRewardsStore store = new OffHeapRewardsStore(true, 64, Duration.ofMinutes(5), now::get);
+        store.rehydrate(7L, store.modificationStamp(7L), List.of(new MonthlyReward("2024-01", 90)));
+        now.addAndGet(Duration.ofMinutes(5).toNanos());
+        assertEquals(90, read(store, 7L).get(YearMonth.of(2024, 1)));
+
+        now.incrementAndGet();
+        assertEquals(OffHeapRewardsStore.Lookup.MISS, store.read(7L, (month, points) -> fail()));
+        store.rehydrate(7L, store.modificationStamp(7L), List.of(new MonthlyReward("2024-01", 140)));
+        assertEquals(140, read(store, 7L).get(YearMonth.of(2024, 1)));
+    }
+
+    /**
+     * Test that a history wider than the month window is remembered as TOO_WIDE rather than stored,
+     * and that a history filling the window exactly is stored.
+     */
+    @Test
+    void testHistoryWiderThanWindowIsTooWide() {
+        OffHeapRewardsStore store = new OffHeapRewardsStore(true, 64, Duration.ofMinutes(5));
+        YearMonth first = YearMonth.of(2015, 1);
+        store.rehydrate(1L, store.modificationStamp(1L), List.of(
+                new MonthlyReward(first.toString(), 10),
+                new MonthlyReward(first.plusMonths(OffHeapRewardsStore.MONTHS).toString(), 10)));
+        assertEquals(OffHeapRewardsStore.Lookup.TOO_WIDE, store.read(1L, (month, points) -> fail()));
+
+        store.rehydrate(2L, store.modificationStamp(2L), List.of(new MonthlyReward(first.toString(), 10),
+                new MonthlyReward(first.plusMonths(OffHeapRewardsStore.MONTHS - 1).toString(), 5)));
+        assertEquals(2, read(store, 2L).size());
+    }
+
+    /**
+     * Test that the store stays within its capacity by evicting records.
+     */
+    @Test
+    void testBoundedSizeAndStaleRehydration() {
+        OffHeapRewardsStore store = new OffHeapRewardsStore(true, 16, Duration.ofMinutes(5));
+        for (long customerId = 1; customerId <= 1_000; customerId++) {
+            store.rehydrate(customerId, store.modificationStamp(customerId), List.of(new MonthlyReward("2024-01", 1)));
+        }
+        long stored = 0;
+        for (long customerId = 1; customerId <= 1_000; customerId++) {
+            if (store.read(customerId, (month, points) -> { }) == OffHeapRewardsStore.Lookup.HIT) {
+                stored++;
+            }
+        }
+        assertEquals(store.getCapacity(), stored);
+        assertEquals(1_000 - store.getCapacity(), store.getEvictions());
+    }
+
+    /**
+     * Test that a rehydration racing with a write for the same customer is discarded,
+     * while a write for another customer does not discard it.
+     */
+    @Test
+    void testStaleRehydrationIsDiscardedPerCustomer() {
+        OffHeapRewardsStore store = new OffHeapRewardsStore(true, 65_536, Duration.ofMinutes(5));
+        long stamp = store.modificationStamp(5_000L);
+        store.evict(5_000L);
+        store.rehydrate(5_000L, stamp, List.of(new MonthlyReward("2024-01", 1)));
+        assertEquals(OffHeapRewardsStore.Lookup.MISS, store.read(5_000L, (month, points) -> { }));
+
+        stamp = store.modificationStamp(5_000L);
+        store.evict(5_001L);
+        store.rehydrate(5_000L, stamp, List.of(new MonthlyReward("2024-01", 1)));
+        assertEquals(Map.of(YearMonth.of(2024, 1), 1), read(store, 5_000L));
+    }
+
+    private Map<YearMonth, Integer> read(OffHeapRewardsStore store, long customerId) {
+        Map<YearMonth, Integer> months = new LinkedHashMap<>();
+        assertEquals(OffHeapRewardsStore.Lookup.HIT, store.read(customerId, months::put));
+        return months;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.customerrewardssystem.aggregate;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.repository.TransactionRepository;
+import com.example.customerrewardssystem.service.RewardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class RewardsAggregateUpdaterTest {
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    /**
+     * Test that a transaction saved through JPA after the index and off-heap record were built shows up
+     * in both date-range and all-time rewards, which relies on the entity listener event arriving after commit.
+     */
+    @Test
+    void testSavedTransactionReachesCachedRewards() {
+        Customer bob = customerRepository.findCustomerByEmail("bob@example.com").orElseThrow();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusYears(1);
+        int before = rewardsService.findByCustomerIdAndDateBetween(bob.getId(), startDate, endDate).getTotalRewards();
+        int allTimeBefore = rewardsService.calculateRewardsForCustomer(bob.getId()).getTotalRewards();
+
+        Transaction transaction = transactionRepository.save(new Transaction(null, endDate, 120.0, bob));
+        try {
+            assertEquals(before + 90, rewardsService.findByCustomerIdAndDateBetween(bob.getId(), startDate, endDate).getTotalRewards());
+            assertEquals(allTimeBefore + 90, rewardsService.calculateRewardsForCustomer(bob.getId()).getTotalRewards());
+        } finally {
+            transactionRepository.delete(transaction);
+        }
+        assertEquals(before, rewardsService.findByCustomerIdAndDateBetween(bob.getId(), startDate, endDate).getTotalRewards());
+        assertEquals(allTimeBefore, rewardsService.calculateRewardsForCustomer(bob.getId()).getTotalRewards());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.customerrewardssystem.benchmark;
+
+import com.example.customerrewardssystem.service.BatchPointsCalculator;
+import com.example.customerrewardssystem.service.RewardsService;
+import com.example.customerrewardssystem.service.RewardsServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares per-transaction points with the batch calculation, on the vector path and with the scalar fallback.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args=PointsBatch
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@State(Scope.Thread)
+public class PointsBatchBenchmark {
+    @Param({"16", "256", "4096", "65536"})
+    private int size;
+
+    private final RewardsService rewardsService = new RewardsServiceImpl(null, null, null, null);
+    private double[] amounts;
+    private int[] points;
+
+    @Setup
+    public void setUp() {
+        // Spread across all three tiers, so branches in the per-transaction method are not predictable.
+        Random random = new Random(42);
+        amounts = new double[size];
+        for (int i = 0; i < size; i++) {
+            amounts[i] = random.nextDouble() * 200;
+        }
+        points = new int[size];
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int[] perTransaction() {
+        for (int i = 0; i < size; i++) {
+            points[i] = rewardsService.calculatePointsForTransaction(amounts[i]);
+        }
+        return points;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+    public int[] batchVector() {
+        BatchPointsCalculator.calculatePoints(amounts, points, size);
+        return points;
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-Drewards.points.scalar=true")
+    public int[] batchScalar() {
+        BatchPointsCalculator.calculatePoints(amounts, points, size);
+        return points;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.customerrewardssystem.benchmark;
+
+import com.example.customerrewardssystem.CustomerRewardsSystemApplication;
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.store.TransactionStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares the JPA and append-only storage engines on the same data: a three-month range query, streaming a
+ * customer's whole history as the rewards service does, and saving a transaction.
+ * The JPA engine runs against in-memory H2, so its saves are never forced to disk, unlike append-only with fsync.
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.args=TransactionStore
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class TransactionStoreBenchmark {
+    private static final int CUSTOMERS = 200;
+    private static final int TRANSACTIONS_PER_CUSTOMER = 500;
+    private static final LocalDate END_DATE = LocalDate.of(2024, 12, 31);
+
+    @Param({"jpa", "append-only", "append-only-no-fsync"})
+    private String engine;
+
+    private Path directory;
+    private ConfigurableApplicationContext context;
+    private TransactionStore transactionStore;
+    private List<Customer> customers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("transaction-store-benchmark");
+        context = new SpringApplicationBuilder(CustomerRewardsSystemApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties("rewards.seed-data.enabled=false",
+                        "rewards.storage.engine=" + (engine.equals("jpa") ? "jpa" : "append-only"),
+                        "rewards.storage.append-only.fsync=" + !engine.equals("append-only-no-fsync"),
+                        "rewards.storage.append-only.directory=" + directory,
+                        "rewards.storage.append-only.snapshot-interval=0s",
+                        "logging.level.root=WARN")
+                .run();
+        transactionStore = context.getBean(TransactionStore.class);
+        CustomerRepository customerRepository = context.getBean(CustomerRepository.class);
+
+        // Two years of history per customer, a little under one transaction a day.
+        customers = new ArrayList<>();
+        for (int c = 0; c < CUSTOMERS; c++) {
+            customers.add(customerRepository.save(new Customer(null, "Customer " + c, "customer" + c + "@example.com")));
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (Customer customer : customers) {
+            List<Transaction> transactions = new ArrayList<>();
+            for (int t = 0; t < TRANSACTIONS_PER_CUSTOMER; t++) {
+                transactions.add(new Transaction(null, END_DATE.minusDays(random.nextInt(730)),
+                        Math.round(random.nextDouble() * 20000) / 100.0, customer));
+            }
+            transactionStore.saveAll(transactions);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public List<Transaction> findByCustomerIdAndDateBetween() {
+        Customer customer = randomCustomer();
+        return transactionStore.findByCustomerIdAndDateBetween(customer.getId(), END_DATE.minusMonths(3), END_DATE);
+    }
+
+    @Benchmark
+    public double streamByCustomerId() {
+        try (Stream<Transaction> transactions = transactionStore.streamByCustomerId(randomCustomer().getId())) {
+            return transactions.mapToDouble(Transaction::getAmount).sum();
+        }
+    }
+
+    @Benchmark
+    public Transaction save() {
+        return transactionStore.save(new Transaction(null, END_DATE, 75.0, randomCustomer()));
+    }
+
+    private Customer randomCustomer() {
+        return customers.get(ThreadLocalRandom.current().nextInt(customers.size()));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.customerrewardssystem.config;
+
+import com.example.customerrewardssystem.model.CustomerRewardsSummary;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.repository.TransactionRepository;
+import com.example.customerrewardssystem.service.RewardsService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Without a lag window, read-only transactions go to the replica even right after the sample data is written.
+@SpringBootTest(properties = "rewards.datasource.replica.max-lag=0s")
+@ActiveProfiles("replica")
+public class ReadReplicaDataSourceConfigTest {
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+    @Autowired
+    @Qualifier("replicaDataSource")
+    private HikariDataSource replicaDataSource;
+
+    /**
+     * With the replica profile active, JPA runs on the routing data source and
+     * read-only rewards queries are served end to end.
+     */
+    @Test
+    void testRewardsReadThroughRoutingDataSource() {
+        assertInstanceOf(LazyConnectionDataSourceProxy.class, dataSource);
+        assertInstanceOf(ReadReplicaRoutingDataSource.class,
+                ((LazyConnectionDataSourceProxy) dataSource).getTargetDataSource());
+
+        Long aliceId = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow().getId();
+        CustomerRewardsSummary summary = rewardsService.calculateRewardsForCustomer(aliceId);
+        assertEquals("Alice", summary.getCustomerName());
+        assertEquals(795, summary.getTotalRewards());
+    }
+
+    /**
+     * Test that a read-only transaction borrows its connection from the replica pool and a read-write one from the
+     * primary pool, which relies on the lazy proxy deferring the routing until the read-only flag is set.
+     */
+    @Test
+    void testReadOnlyTransactionUsesReplicaPool() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        readOnly.executeWithoutResult(status -> {
+            assertFalse(transactionRepository.findAll().isEmpty());
+            assertEquals(1, replicaDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(0, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            assertFalse(transactionRepository.findAll().isEmpty());
+            assertEquals(0, replicaDataSource.getHikariPoolMXBean().getActiveConnections());
+            assertEquals(1, primaryDataSource.getHikariPoolMXBean().getActiveConnections());
+        });
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.customerrewardssystem.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReadReplicaRoutingDataSourceTest {
+    private final AtomicLong clock = new AtomicLong(0);
+    private ReadReplicaRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ReadReplicaRoutingDataSource(Duration.ofSeconds(2), clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    /**
+     * Read-only transactions go to the replica when there has been no recent write.
+     */
+    @Test
+    void testReadOnlyTransactionRoutesToReplica() {
+        beginTransaction(true);
+        assertEquals(ReadReplicaRoutingDataSource.Route.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    /**
+     * Read-write transactions and non-transactional access always use the primary.
+     */
+    @Test
+    void testWritesRouteToPrimary() {
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        beginTransaction(false);
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+    }
+
+    /**
+     * After a write, reads stay on the primary until the configured replica lag has elapsed.
+     */
+    @Test
+    void testReadsStayOnPrimaryWithinStalenessWindow() {
+        clock.set(Duration.ofSeconds(10).toNanos());
+        beginTransaction(false);
+        routingDataSource.determineCurrentLookupKey();
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clear();
+
+        beginTransaction(true);
+        clock.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertEquals(ReadReplicaRoutingDataSource.Route.PRIMARY, routingDataSource.determineCurrentLookupKey());
+
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        assertEquals(ReadReplicaRoutingDataSource.Route.REPLICA, routingDataSource.determineCurrentLookupKey());
+    }
+
+    private void beginTransaction(boolean readOnly) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+}
@@ -1,31 +1,58 @@
 package com.example.customerrewardssystem.controller;
 
+import com.example.customerrewardssystem.aggregate.RewardsVersionTracker;
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
+import com.example.customerrewardssystem.limit.ConcurrencyLimitFilter;
 import com.example.customerrewardssystem.model.CustomerRewardsSummary;
 import com.example.customerrewardssystem.model.MonthlyReward;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import com.example.customerrewardssystem.service.RequestCoalescer;
 import com.example.customerrewardssystem.service.RewardsService;
 
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(RewardsController.class)
+@Import({RequestCoalescer.class, RewardsVersionTracker.class, SimpleMeterRegistry.class})
 public class RewardsControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private RewardsVersionTracker rewardsVersionTracker;
+
+    @Autowired
+    private RequestCoalescer requestCoalescer;
+
     @MockBean
     private RewardsService rewardsService;
 
@@ -162,4 +189,113 @@ public class RewardsControllerTest {
                 .andExpect(jsonPath("$.monthlyRewards[2].month").value("2023-03"))
                 .andExpect(jsonPath("$.monthlyRewards[2].amount").value(90));
     }
-}
\ No newline at end of file
+
+    /**
+     * Test that GET /{customerId}/rewards returns an ETag, answers a matching If-None-Match
+     * with 304 Not Modified without recomputing the rewards, and returns a fresh response
+     * once a transaction write has bumped the customer's version.
+     */
+    @Test
+    void testGetRewardsForCustomerConditionalGet() throws Exception {
+        Long customerId = 3L;
+        CustomerRewardsSummary mockSummary = new CustomerRewardsSummary(customerId, "Carol",
+                List.of(new MonthlyReward("2023-01", 40)), 40);
+        when(rewardsService.calculateRewardsForCustomer(customerId)).thenReturn(mockSummary);
+
+        String eTag = mockMvc.perform(get("/api/rewards/" + customerId + "/rewards"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        // The client's cached copy is still current, so nothing is recomputed
+        mockMvc.perform(get("/api/rewards/" + customerId + "/rewards").header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().string(""));
+        verify(rewardsService, times(1)).calculateRewardsForCustomer(customerId);
+
+        // A committed write for the customer invalidates the tag
+        rewardsVersionTracker.onTransactionChanged(new TransactionChangedEvent(
+                TransactionChangedEvent.Type.CREATED, customerId, LocalDate.of(2023, 1, 15), 90.0));
+        mockMvc.perform(get("/api/rewards/" + customerId + "/rewards").header("If-None-Match", eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalRewards").value(40));
+        verify(rewardsService, times(2)).calculateRewardsForCustomer(customerId);
+    }
+
+    /**
+     * Test that a request arriving after a write does not join a computation that started before it,
+     * so it gets the post-write rewards together with the post-write ETag.
+     */
+    @Test
+    void testRequestAfterWriteDoesNotJoinEarlierComputation() throws Exception {
+        Long customerId = 4L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rewardsService.calculateRewardsForCustomer(customerId))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new CustomerRewardsSummary(customerId, "Dan", List.of(new MonthlyReward("2023-01", 40)), 40);
+                })
+                .thenReturn(new CustomerRewardsSummary(customerId, "Dan", List.of(new MonthlyReward("2023-01", 130)), 130));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<MvcResult> beforeWrite = executor.submit(() ->
+                    mockMvc.perform(get("/api/rewards/" + customerId + "/rewards")).andReturn());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            rewardsVersionTracker.onTransactionChanged(new TransactionChangedEvent(
+                    TransactionChangedEvent.Type.CREATED, customerId, LocalDate.of(2023, 1, 15), 120.0));
+
+            String afterWriteTag = mockMvc.perform(get("/api/rewards/" + customerId + "/rewards"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalRewards").value(130))
+                    .andReturn().getResponse().getHeader("ETag");
+            release.countDown();
+            assertNotEquals(afterWriteTag, beforeWrite.get(5, TimeUnit.SECONDS).getResponse().getHeader("ETag"));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that a request sharing another request's computation is marked so the concurrency limiter skips
+     * its latency, while the request that ran the computation is not.
+     */
+    @Test
+    void testSharedComputationIsNotSampled() throws Exception {
+        Long customerId = 5L;
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rewardsService.calculateRewardsForCustomer(customerId))
+                .thenAnswer(invocation -> {
+                    started.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return new CustomerRewardsSummary(customerId, "Eve", List.of(new MonthlyReward("2023-01", 40)), 40);
+                });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<MvcResult> leader = executor.submit(() ->
+                    mockMvc.perform(get("/api/rewards/" + customerId + "/rewards")).andReturn());
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            long coalesced = requestCoalescer.getCoalescedCount();
+            Future<MvcResult> follower = executor.submit(() ->
+                    mockMvc.perform(get("/api/rewards/" + customerId + "/rewards")).andReturn());
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                while (requestCoalescer.getCoalescedCount() == coalesced) {
+                    Thread.sleep(5);
+                }
+            }, "follower never joined the computation");
+            release.countDown();
+
+            assertNull(leader.get(5, TimeUnit.SECONDS).getRequest().getAttribute(ConcurrencyLimitFilter.SKIP_SAMPLE_ATTRIBUTE));
+            assertEquals(Boolean.TRUE, follower.get(5, TimeUnit.SECONDS).getRequest().getAttribute(ConcurrencyLimitFilter.SKIP_SAMPLE_ATTRIBUTE));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.customerrewardssystem.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConcurrencyLimitFilterTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GradientConcurrencyLimiter lookupLimiter = new GradientConcurrencyLimiter("lookup", 1, 1, 1, meterRegistry);
+    private final GradientConcurrencyLimiter batchLimiter = new GradientConcurrencyLimiter("batch", 1, 1, 1, meterRegistry);
+    private final ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(lookupLimiter, batchLimiter, Duration.ofSeconds(2));
+
+    /**
+     * Test that a request over the limit gets 503 with Retry-After without reaching the controller,
+     * while the separate batch limit still admits a batch calculation.
+     */
+    @Test
+    void testShedsLookupsOverLimitButAdmitsBatch() throws Exception {
+        GradientConcurrencyLimiter.Permit busy = lookupLimiter.tryAcquire().orElseThrow();
+
+        MockFilterChain lookupChain = new MockFilterChain();
+        MockHttpServletResponse rejected = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/rewards/1/rewards"), rejected, lookupChain);
+
+        assertEquals(503, rejected.getStatus());
+        assertEquals("2", rejected.getHeader("Retry-After"));
+        assertNull(lookupChain.getRequest());
+
+        MockFilterChain batchChain = new MockFilterChain();
+        MockHttpServletResponse admitted = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/rewards/calculate"), admitted, batchChain);
+
+        assertEquals(200, admitted.getStatus());
+        assertNotNull(batchChain.getRequest());
+        assertEquals(0, batchLimiter.getInFlight());
+        busy.ignore();
+    }
+
+    /**
+     * Test that the permit is released when the controller throws.
+     */
+    @Test
+    void testReleasesPermitOnFailure() {
+        MockFilterChain failingChain = new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                throw new IllegalStateException("database down");
+            }
+        });
+
+        assertThrows(IllegalStateException.class, () -> filter.doFilter(
+                new MockHttpServletRequest("GET", "/api/rewards/1/rewards"), new MockHttpServletResponse(), failingChain));
+        assertEquals(0, lookupLimiter.getInFlight());
+    }
+
+    /**
+     * Test that a stream of Not Modified, client error and shared-computation responses leaves the limit and its
+     * latency baseline alone, while a request that did its own work is sampled.
+     */
+    @Test
+    void testSamplesOnlyRequestsThatDidTheWork() throws Exception {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter("sampled", 2, 1, 50, meterRegistry);
+        ConcurrencyLimitFilter sampledFilter = new ConcurrencyLimitFilter(limiter, batchLimiter, Duration.ofSeconds(1));
+        for (int i = 0; i < 300; i++) {
+            sampledFilter.doFilter(new MockHttpServletRequest("GET", "/api/rewards/1/rewards"),
+                    new MockHttpServletResponse(), respondWith(i % 3 == 0 ? 304 : i % 3 == 1 ? 404 : 200, i % 3 == 2));
+        }
+        assertEquals(2, limiter.getLimit());
+        assertEquals(0, limiter.getBaselineRtt());
+        assertEquals(0, limiter.getInFlight());
+
+        sampledFilter.doFilter(new MockHttpServletRequest("GET", "/api/rewards/1/rewards"),
+                new MockHttpServletResponse(), respondWith(200, false));
+        assertTrue(limiter.getBaselineRtt() > 0);
+    }
+
+    private static MockFilterChain respondWith(int status, boolean sharedComputation) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) {
+                if (sharedComputation) {
+                    request.setAttribute(ConcurrencyLimitFilter.SKIP_SAMPLE_ATTRIBUTE, Boolean.TRUE);
+                }
+                response.setStatus(status);
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.customerrewardssystem.limit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GradientConcurrencyLimiterTest {
+    private static final long MILLIS = 1_000_000;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter("test", 10, 2, 50, meterRegistry);
+
+    /**
+     * Test that requests beyond the current limit are rejected, counted, and admitted again once a permit is released.
+     */
+    @Test
+    void testRejectsBeyondLimit() {
+        List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            permits.add(limiter.tryAcquire().orElseThrow());
+        }
+
+        assertTrue(limiter.tryAcquire().isEmpty());
+        assertEquals(1, meterRegistry.get("rewards.limiter.requests").tag("outcome", "rejected").counter().count());
+
+        permits.remove(0).ignore();
+        assertTrue(limiter.tryAcquire().isPresent());
+        assertEquals(10, limiter.getInFlight());
+    }
+
+    /**
+     * Test that the limit grows while fully used requests keep their usual latency, and shrinks towards the
+     * minimum once latency rises well above the baseline, as when requests start queueing.
+     */
+    @Test
+    void testLimitFollowsLatency() {
+        runAtLimit(200, 10 * MILLIS);
+        int grown = limiter.getLimit();
+        assertTrue(grown > 10, "limit grew to " + grown);
+
+        runAtLimit(50, 60 * MILLIS);
+        int shrunk = limiter.getLimit();
+        assertTrue(shrunk < grown / 2, "limit shrank from " + grown + " to " + shrunk);
+        assertTrue(shrunk >= 2);
+        assertEquals(shrunk, meterRegistry.get("rewards.limiter.limit").gauge().value());
+    }
+
+    /**
+     * Test that latency samples taken while few requests are in flight leave the limit alone.
+     */
+    @Test
+    void testIgnoresSamplesFarBelowLimit() {
+        for (int i = 0; i < 100; i++) {
+            Optional<GradientConcurrencyLimiter.Permit> permit = limiter.tryAcquire();
+            permit.orElseThrow().release(i % 2 == 0 ? MILLIS : 100 * MILLIS);
+        }
+
+        assertEquals(10, limiter.getLimit());
+    }
+
+    // Fills the current limit, then releases every permit with the given latency, for the given number of rounds.
+    private void runAtLimit(int rounds, long rttNanos) {
+        for (int round = 0; round < rounds; round++) {
+            List<GradientConcurrencyLimiter.Permit> permits = new ArrayList<>();
+            Optional<GradientConcurrencyLimiter.Permit> permit;
+            while ((permit = limiter.tryAcquire()).isPresent()) {
+                permits.add(permit.get());
+            }
+            permits.forEach(p -> p.release(rttNanos));
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.customerrewardssystem.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Seeds the database with a synthetic customer population.
+ * The same seed always produces the same customers, transactions and ids, so runs are comparable.
+ */
+public class DatasetGenerator {
+    private static final int BATCH_SIZE = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LoadTestConfig config;
+
+    public DatasetGenerator(JdbcTemplate jdbcTemplate, LoadTestConfig config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.config = config;
+    }
+
+    /**
+     * Inserts the customers and their transactions and returns the number of transactions written.
+     * Customer ids are 1..customers; a fixed share of them are heavy customers with many more transactions.
+     */
+    public long generate() {
+        Random random = new Random(config.seed);
+        LocalDate firstDate = config.endDate.minusMonths(config.historyMonths).plusDays(1);
+        int daySpan = (int) (config.endDate.toEpochDay() - firstDate.toEpochDay()) + 1;
+
+        List<Object[]> customers = new ArrayList<>(config.customers);
+        for (long id = 1; id <= config.customers; id++) {
+            customers.add(new Object[]{id, "Customer " + id, "customer" + id + "@example.com"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO customer (id, name, email) VALUES (?, ?, ?)", customers);
+
+        long transactionCount = 0;
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        for (long customerId = 1; customerId <= config.customers; customerId++) {
+            int count = config.transactionsPerCustomer;
+            if (random.nextInt(100) < config.heavyCustomerPercent) {
+                count *= config.heavyCustomerMultiplier;
+            }
+            for (int i = 0; i < count; i++) {
+                LocalDate date = firstDate.plusDays(random.nextInt(daySpan));
+                // Purchases cluster below 150 with a long tail, so every reward tier is exercised.
+                double amount = Math.round(Math.abs(random.nextGaussian() * 60 + 80) * 100) / 100.0;
+                batch.add(new Object[]{Date.valueOf(date), amount, customerId});
+                if (batch.size() == BATCH_SIZE) {
+                    insertTransactions(batch);
+                }
+            }
+            transactionCount += count;
+        }
+        insertTransactions(batch);
+        return transactionCount;
+    }
+
+    private void insertTransactions(List<Object[]> batch) {
+        if (!batch.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO transaction (date, amount, customer_id) VALUES (?, ?, ?)", batch);
+            batch.clear();
+        }
+    }
+}
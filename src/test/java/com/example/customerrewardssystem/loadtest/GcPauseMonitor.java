@@ -0,0 +1,57 @@
+package com.example.customerrewardssystem.loadtest;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects GC pause durations from the JVM's garbage collection notifications.
+ * The application runs in the same JVM as the driver, so these are the pauses the server saw.
+ */
+public class GcPauseMonitor implements AutoCloseable {
+    private final AtomicLong pauses = new AtomicLong();
+    private final AtomicLong totalPauseMillis = new AtomicLong();
+    private final AtomicLong maxPauseMillis = new AtomicLong();
+    private final NotificationListener listener = (notification, handback) -> {
+        if (GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+            // Concurrent cycles are reported too; only count the stop-the-world collections.
+            if (!info.getGcName().contains("Concurrent")) {
+                long duration = info.getGcInfo().getDuration();
+                pauses.incrementAndGet();
+                totalPauseMillis.addAndGet(duration);
+                maxPauseMillis.accumulateAndGet(duration, Math::max);
+            }
+        }
+    };
+
+    public GcPauseMonitor() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(listener, null, null);
+        }
+    }
+
+    public void reset() {
+        pauses.set(0);
+        totalPauseMillis.set(0);
+        maxPauseMillis.set(0);
+    }
+
+    public String summary() {
+        return String.format("GC pauses: %d, total %d ms, max %d ms",
+                pauses.get(), totalPauseMillis.get(), maxPauseMillis.get());
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).removeNotificationListener(listener);
+        }
+    }
+}
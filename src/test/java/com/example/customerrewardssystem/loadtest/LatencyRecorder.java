@@ -0,0 +1,106 @@
+package com.example.customerrewardssystem.loadtest;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size log-linear latency histogram with microsecond resolution and roughly 1.5% precision.
+ * Recording is lock-free, so it can be shared by the HTTP client's completion threads.
+ */
+public class LatencyRecorder {
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Covers up to 2^40 microseconds, far beyond any request timeout.
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray((MAGNITUDES + 1) * SUB_BUCKETS);
+    private final AtomicLongArray totals = new AtomicLongArray(3);
+
+    private static final int COUNT = 0;
+    private static final int ERRORS = 1;
+    private static final int MAX = 2;
+
+    public void record(long latencyMicros) {
+        counts.incrementAndGet(indexFor(latencyMicros));
+        totals.incrementAndGet(COUNT);
+        totals.accumulateAndGet(MAX, latencyMicros, Math::max);
+    }
+
+    public void recordError() {
+        totals.incrementAndGet(ERRORS);
+    }
+
+    public long count() {
+        return totals.get(COUNT);
+    }
+
+    public long errors() {
+        return totals.get(ERRORS);
+    }
+
+    public long maxMicros() {
+        return totals.get(MAX);
+    }
+
+    /**
+     * Returns the latency at the given percentile (0-100], as the upper bound of the bucket it falls in.
+     */
+    public long percentileMicros(double percentile) {
+        long total = count();
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(total * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBoundFor(i), maxMicros());
+            }
+        }
+        return maxMicros();
+    }
+
+    /**
+     * Returns a snapshot of this recorder and resets it, for interval reports during soak runs.
+     */
+    public LatencyRecorder drain() {
+        LatencyRecorder snapshot = new LatencyRecorder();
+        for (int i = 0; i < counts.length(); i++) {
+            snapshot.counts.set(i, counts.getAndSet(i, 0));
+        }
+        for (int i = 0; i < totals.length(); i++) {
+            snapshot.totals.set(i, totals.getAndSet(i, 0));
+        }
+        return snapshot;
+    }
+
+    public void add(LatencyRecorder other) {
+        for (int i = 0; i < counts.length(); i++) {
+            counts.addAndGet(i, other.counts.get(i));
+        }
+        totals.addAndGet(COUNT, other.count());
+        totals.addAndGet(ERRORS, other.errors());
+        totals.accumulateAndGet(MAX, other.maxMicros(), Math::max);
+    }
+
+    private static int indexFor(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) Math.max(value, 0);
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS + 1;
+        if (magnitude > MAGNITUDES) {
+            return (MAGNITUDES + 1) * SUB_BUCKETS - 1;
+        }
+        // value >>> magnitude falls in [SUB_BUCKETS / 2, SUB_BUCKETS), which keeps the relative error bounded.
+        return magnitude * SUB_BUCKETS + (int) (value >>> magnitude);
+    }
+
+    private static long upperBoundFor(int index) {
+        int magnitude = index / SUB_BUCKETS;
+        int offset = index % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return offset;
+        }
+        return ((long) offset << magnitude) + (1L << magnitude) - 1;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.customerrewardssystem.loadtest;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for a load-test run, parsed from --key=value arguments.
+ * Every value has a default, so a bare run gives a short smoke baseline.
+ */
+public class LoadTestConfig {
+    // Dataset
+    final long seed;
+    final int customers;
+    final int transactionsPerCustomer;
+    final int heavyCustomerPercent;
+    final int heavyCustomerMultiplier;
+    final int historyMonths;
+    final LocalDate endDate;
+
+    // Traffic
+    final int requestsPerSecond;
+    final Duration warmup;
+    final Duration duration;
+    final Duration reportInterval;
+    final int rewardsWeight;
+    final int rangeWeight;
+    final int batchWeight;
+    final int batchSize;
+    final int maxInFlight;
+
+    LoadTestConfig(Map<String, String> args) {
+        seed = Long.parseLong(args.getOrDefault("seed", "42"));
+        customers = Integer.parseInt(args.getOrDefault("customers", "1000"));
+        transactionsPerCustomer = Integer.parseInt(args.getOrDefault("transactions-per-customer", "50"));
+        heavyCustomerPercent = Integer.parseInt(args.getOrDefault("heavy-customer-percent", "1"));
+        heavyCustomerMultiplier = Integer.parseInt(args.getOrDefault("heavy-customer-multiplier", "100"));
+        historyMonths = Integer.parseInt(args.getOrDefault("history-months", "24"));
+        endDate = LocalDate.parse(args.getOrDefault("end-date", "2024-06-30"));
+
+        requestsPerSecond = Integer.parseInt(args.getOrDefault("rate", "100"));
+        warmup = Duration.parse(args.getOrDefault("warmup", "PT10S"));
+        duration = Duration.parse(args.getOrDefault("duration", "PT30S"));
+        reportInterval = Duration.parse(args.getOrDefault("report-interval", "PT10S"));
+        rewardsWeight = Integer.parseInt(args.getOrDefault("mix-rewards", "50"));
+        rangeWeight = Integer.parseInt(args.getOrDefault("mix-calculate", "40"));
+        batchWeight = Integer.parseInt(args.getOrDefault("mix-batch", "10"));
+        batchSize = Integer.parseInt(args.getOrDefault("batch-size", "100"));
+        maxInFlight = Integer.parseInt(args.getOrDefault("max-in-flight", "1000"));
+    }
+
+    static LoadTestConfig parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --key=value but got: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        return new LoadTestConfig(values);
+    }
+
+    @Override
+    public String toString() {
+        return "seed=" + seed + ", customers=" + customers + ", transactionsPerCustomer=" + transactionsPerCustomer
+                + ", heavyCustomers=" + heavyCustomerPercent + "% x" + heavyCustomerMultiplier
+                + ", historyMonths=" + historyMonths + ", rate=" + requestsPerSecond + "/s"
+                + ", warmup=" + warmup + ", duration=" + duration
+                + ", mix(rewards/calculate/batch)=" + rewardsWeight + "/" + rangeWeight + "/" + batchWeight;
+    }
+}
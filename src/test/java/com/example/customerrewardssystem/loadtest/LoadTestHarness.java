@@ -0,0 +1,219 @@
+package com.example.customerrewardssystem.loadtest;
+
+import com.example.customerrewardssystem.CustomerRewardsSystemApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the rewards API.
+ * Starts the application in-process on a random port, seeds H2 with a synthetic population and drives
+ * a deterministic mix of requests across all three RewardsController endpoints at a fixed arrival rate.
+ * Latency is measured from each request's scheduled send time, so a slow server cannot hide its queueing delay.
+ *
+ * Run with: mvn -Ploadtest test-compile exec:exec -Dloadtest.args="--rate=200 --duration=PT5M"
+ */
+public class LoadTestHarness {
+    private static final Path REPORT_FILE = Path.of("target", "loadtest-report.txt");
+
+    private final LoadTestConfig config;
+    private final HttpClient httpClient;
+    private final String baseUrl;
+    private final Map<String, LatencyRecorder> intervalRecorders = new LinkedHashMap<>();
+    private final Map<String, LatencyRecorder> totalRecorders = new LinkedHashMap<>();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Random random;
+
+    LoadTestHarness(LoadTestConfig config, HttpClient httpClient, int port) {
+        this.config = config;
+        this.httpClient = httpClient;
+        this.baseUrl = "http://localhost:" + port + "/api/rewards";
+        this.random = new Random(config.seed + 1);
+        for (String endpoint : List.of("GET /{id}/rewards", "GET /{id}/calculate", "POST /calculate")) {
+            intervalRecorders.put(endpoint, new LatencyRecorder());
+            totalRecorders.put(endpoint, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.parse(args);
+        System.out.println("Load test: " + config);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CustomerRewardsSystemApplication.class)
+                .properties("server.port=0", "rewards.seed-data.enabled=false", "spring.main.banner-mode=off",
+                        "spring.jpa.open-in-view=false", "logging.level.root=WARN")
+                .run()) {
+            long started = System.nanoTime();
+            long transactions = new DatasetGenerator(context.getBean(JdbcTemplate.class), config).generate();
+            System.out.printf("Seeded %d customers and %d transactions in %d ms%n", config.customers, transactions,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            ExecutorService executor = Executors.newFixedThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+            HttpClient httpClient = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(5)).build();
+            try (GcPauseMonitor gcMonitor = new GcPauseMonitor()) {
+                LoadTestHarness harness = new LoadTestHarness(config, httpClient, port);
+                String report = harness.run(gcMonitor);
+                System.out.println(report);
+                Files.createDirectories(REPORT_FILE.getParent());
+                Files.writeString(REPORT_FILE, "Load test: " + config + System.lineSeparator() + report);
+                System.out.println("Report written to " + REPORT_FILE.toAbsolutePath());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    String run(GcPauseMonitor gcMonitor) throws InterruptedException {
+        System.out.println("Warming up for " + config.warmup);
+        drive(config.warmup, false);
+        awaitInFlight();
+        intervalRecorders.values().forEach(LatencyRecorder::drain);
+        gcMonitor.reset();
+
+        System.out.println("Measuring for " + config.duration);
+        long started = System.nanoTime();
+        drive(config.duration, true);
+        awaitInFlight();
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+        flushInterval(false);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-22s %9s %7s %10s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        LatencyRecorder overall = new LatencyRecorder();
+        for (Map.Entry<String, LatencyRecorder> entry : totalRecorders.entrySet()) {
+            overall.add(entry.getValue());
+            report.append(formatRow(entry.getKey(), entry.getValue(), elapsedSeconds));
+        }
+        report.append(formatRow("all", overall, elapsedSeconds));
+        report.append(gcMonitor.summary()).append(System.lineSeparator());
+        return report.toString();
+    }
+
+    // Issues requests on a fixed schedule for the given duration, independent of how fast responses come back.
+    private void drive(Duration duration, boolean measure) {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.requestsPerSecond;
+        long reportIntervalNanos = config.reportInterval.toNanos();
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+        long nextReport = start + reportIntervalNanos;
+        for (long i = 0; ; i++) {
+            long scheduled = start + i * intervalNanos;
+            if (scheduled >= end) {
+                break;
+            }
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (measure && scheduled >= nextReport) {
+                flushInterval(true);
+                nextReport += reportIntervalNanos;
+            }
+            send(nextRequest(), scheduled);
+        }
+    }
+
+    private void send(TimedRequest request, long scheduledNanos) {
+        LatencyRecorder recorder = intervalRecorders.get(request.endpoint);
+        if (inFlight.incrementAndGet() > config.maxInFlight) {
+            // The server has fallen too far behind; count it as a failure instead of queueing without bound.
+            inFlight.decrementAndGet();
+            recorder.recordError();
+            return;
+        }
+        httpClient.sendAsync(request.request, HttpResponse.BodyHandlers.discarding())
+                .whenComplete((response, failure) -> {
+                    inFlight.decrementAndGet();
+                    if (failure != null || response.statusCode() >= 400) {
+                        recorder.recordError();
+                    } else {
+                        recorder.record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledNanos));
+                    }
+                });
+    }
+
+    private TimedRequest nextRequest() {
+        int total = config.rewardsWeight + config.rangeWeight + config.batchWeight;
+        int pick = random.nextInt(total);
+        long customerId = 1 + random.nextInt(config.customers);
+        if (pick < config.rewardsWeight) {
+            return new TimedRequest("GET /{id}/rewards",
+                    HttpRequest.newBuilder(URI.create(baseUrl + "/" + customerId + "/rewards")).GET().build());
+        }
+        if (pick < config.rewardsWeight + config.rangeWeight) {
+            LocalDate endDate = config.endDate.minusDays(random.nextInt(config.historyMonths * 30));
+            LocalDate startDate = endDate.minusMonths(1 + random.nextInt(6));
+            URI uri = URI.create(baseUrl + "/" + customerId + "/calculate?startDate=" + startDate + "&endDate=" + endDate);
+            return new TimedRequest("GET /{id}/calculate", HttpRequest.newBuilder(uri).GET().build());
+        }
+        return new TimedRequest("POST /calculate", HttpRequest.newBuilder(URI.create(baseUrl + "/calculate"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(batchBody()))
+                .build());
+    }
+
+    private String batchBody() {
+        List<String> transactions = new ArrayList<>(config.batchSize);
+        for (int i = 0; i < config.batchSize; i++) {
+            long customerId = 1 + random.nextInt(config.customers);
+            LocalDate date = config.endDate.minusDays(random.nextInt(90));
+            double amount = Math.round(random.nextDouble() * 30000) / 100.0;
+            transactions.add("{\"date\":\"" + date + "\",\"amount\":" + amount
+                    + ",\"customer\":{\"id\":" + customerId + ",\"name\":\"Customer " + customerId + "\"}}");
+        }
+        return "[" + String.join(",", transactions) + "]";
+    }
+
+    private void awaitInFlight() throws InterruptedException {
+        while (inFlight.get() > 0) {
+            Thread.sleep(10);
+        }
+    }
+
+    // Moves the interval's samples into the run totals, printing them first for soak runs.
+    private void flushInterval(boolean print) {
+        for (Map.Entry<String, LatencyRecorder> entry : intervalRecorders.entrySet()) {
+            LatencyRecorder interval = entry.getValue().drain();
+            totalRecorders.get(entry.getKey()).add(interval);
+            if (print) {
+                System.out.printf("  [interval] %-20s n=%-7d err=%-5d p50=%.2fms p99=%.2fms max=%.2fms%n",
+                        entry.getKey(), interval.count(), interval.errors(), interval.percentileMicros(50) / 1000.0,
+                        interval.percentileMicros(99) / 1000.0, interval.maxMicros() / 1000.0);
+            }
+        }
+    }
+
+    private static String formatRow(String name, LatencyRecorder recorder, double elapsedSeconds) {
+        return String.format("%-22s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                name, recorder.count(), recorder.errors(), recorder.count() / elapsedSeconds,
+                recorder.percentileMicros(50) / 1000.0, recorder.percentileMicros(90) / 1000.0,
+                recorder.percentileMicros(99) / 1000.0, recorder.percentileMicros(99.9) / 1000.0,
+                recorder.maxMicros() / 1000.0);
+    }
+
+    private record TimedRequest(String endpoint, HttpRequest request) {
+    }
+}
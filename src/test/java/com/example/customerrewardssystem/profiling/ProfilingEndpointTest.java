@@ -0,0 +1,93 @@
+package com.example.customerrewardssystem.profiling;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"rewards.profiling.enabled=true", "rewards.profiling.max-duration=1m", "management.server.port=0",
+                "management.endpoints.web.exposure.include=health,profiling"})
+public class ProfilingEndpointTest {
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @LocalManagementPort
+    private int managementPort;
+
+    /**
+     * Test that a recording started and stopped through the actuator endpoint is returned as a JFR file
+     * holding the query, calculation and serialization events of a rewards request made in between,
+     * that the requested duration is capped at the configured maximum, and that the endpoint is only
+     * served on the management port.
+     */
+    @Test
+    void testRecordingCapturesRewardsPhases() throws Exception {
+        Customer alice = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow();
+        String profiling = "http://localhost:" + managementPort + "/actuator/profiling";
+
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.postForEntity("/actuator/profiling", json("{}"), String.class).getStatusCode());
+        ResponseEntity<String> started = restTemplate.postForEntity(profiling, json("{\"duration\":\"PT10M\"}"), String.class);
+        assertEquals(HttpStatus.OK, started.getStatusCode());
+        assertEquals("PT1M", started.getBody());
+        assertEquals(HttpStatus.CONFLICT, restTemplate.postForEntity(profiling, json("{}"), String.class).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,
+                restTemplate.postForEntity(profiling, json("{\"settings\":\"custom\"}"), String.class).getStatusCode());
+
+        ResponseEntity<String> rewards = restTemplate.getForEntity("/api/rewards/" + alice.getId() + "/rewards", String.class);
+        assertEquals(HttpStatus.OK, rewards.getStatusCode());
+        assertTrue(rewards.getBody().contains("\"totalRewards\":795"));
+
+        ResponseEntity<byte[]> stopped = restTemplate.exchange(profiling, HttpMethod.DELETE, null, byte[].class);
+        assertEquals(HttpStatus.OK, stopped.getStatusCode());
+        byte[] recording = stopped.getBody();
+
+        Path file = Files.createTempFile("profiling-test-", ".jfr");
+        try {
+            Files.write(file, recording);
+            List<RecordedEvent> events = RecordingFile.readAllEvents(file).stream()
+                    .filter(event -> event.getEventType().getName().startsWith("com.example.rewards."))
+                    .filter(event -> event.getLong("customerId") == alice.getId())
+                    .toList();
+            Set<String> names = events.stream().map(event -> event.getEventType().getName()).collect(Collectors.toSet());
+            assertEquals(Set.of("com.example.rewards.TransactionQuery", "com.example.rewards.RewardsCalculation",
+                    "com.example.rewards.RewardsSerialization"), names);
+
+            RecordedEvent calculation = events.stream()
+                    .filter(event -> event.getEventType().getName().equals("com.example.rewards.RewardsCalculation"))
+                    .findFirst().orElseThrow();
+            assertTrue(calculation.getInt("transactionCount") > 0);
+            assertTrue(calculation.getInt("months") > 0);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange(profiling, HttpMethod.DELETE, null, byte[].class).getStatusCode());
+    }
+
+    private static HttpEntity<String> json(String body) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return new HttpEntity<>(body, headers);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.service.RewardsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class CustomerCacheTest {
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Test that once the customer is cached, repeated rewards calls are answered without any SQL:
+     * the customer comes from the query and entity caches, and the rewards from the in-memory aggregates.
+     */
+    @Test
+    void testRepeatedRewardsCallsDoNotSelectCustomer() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        Statistics statistics = sessionFactory.getStatistics();
+        Long aliceId = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow().getId();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusMonths(3);
+
+        // Warm up: the first calls load the customer and build the rewards aggregates.
+        rewardsService.calculateRewardsForCustomer(aliceId);
+        rewardsService.findByCustomerIdAndDateBetween(aliceId, startDate, endDate);
+
+        statistics.clear();
+        for (int i = 0; i < 3; i++) {
+            assertEquals(795, rewardsService.calculateRewardsForCustomer(aliceId).getTotalRewards());
+            rewardsService.findByCustomerIdAndDateBetween(aliceId, startDate, endDate);
+        }
+
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(6, statistics.getQueryCacheHitCount());
+        assertEquals(0, statistics.getQueryCacheMissCount());
+    }
+
+    /**
+     * Test that an update to a customer is visible to the cached finders.
+     */
+    @Test
+    void testUpdatedCustomerIsNotServedStale() {
+        Customer bob = customerRepository.findCustomerByEmail("bob@example.com").orElseThrow();
+        String name = bob.getName();
+        customerRepository.findCustomerById(bob.getId());
+
+        bob.setName("Robert");
+        customerRepository.save(bob);
+        try {
+            assertEquals("Robert", customerRepository.findCustomerById(bob.getId()).orElseThrow().getName());
+            assertEquals(1, customerRepository.findCustomerByName("Robert").size());
+        } finally {
+            bob.setName(name);
+            customerRepository.save(bob);
+        }
+        assertEquals(name, customerRepository.findCustomerById(bob.getId()).orElseThrow().getName());
+    }
+}
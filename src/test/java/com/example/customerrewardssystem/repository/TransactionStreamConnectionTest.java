@@ -0,0 +1,57 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.service.RewardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// A pool of one connection fails fast if a stream needs a second connection next to its transaction's.
+@SpringBootTest(properties = {"spring.datasource.hikari.maximum-pool-size=1",
+        "spring.datasource.hikari.connection-timeout=250"})
+public class TransactionStreamConnectionTest {
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * Test that a stream opened inside a transaction uses that transaction's connection, so it also sees the
+     * transaction's own uncommitted rows.
+     */
+    @Test
+    void testStreamRunsOnTransactionConnection() {
+        Customer bob = customerRepository.findCustomerByEmail("bob@example.com").orElseThrow();
+        long committed = transactionRepository.findByCustomerId(bob.getId()).size();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            transactionRepository.saveAndFlush(new Transaction(null, LocalDate.now(), 75.0, bob));
+            try (Stream<Transaction> transactions = transactionRepository.streamByCustomerId(bob.getId())) {
+                assertEquals(committed + 1, transactions.count());
+            }
+            status.setRollbackOnly();
+        });
+    }
+
+    /**
+     * Test that a read-only service method that streams transactions completes with a single pooled connection.
+     */
+    @Test
+    void testRewardsNeedOneConnection() {
+        Customer alice = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow();
+        assertEquals(795, rewardsService.calculateRewardsForCustomer(alice.getId()).getTotalRewards());
+        assertTrue(rewardsService.findByCustomerIdAndDateBetween(alice.getId(), LocalDate.now().minusYears(1),
+                LocalDate.now()).getTotalRewards() > 0);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.customerrewardssystem.repository;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Outside a transaction the stream reads through a connection of its own, so the test data has to be committed.
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class TransactionStreamRepositoryTest {
+    @Autowired
+    private TransactionRepository transactionRepository;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @AfterEach
+    void tearDown() {
+        transactionRepository.deleteAllInBatch();
+        customerRepository.deleteAllInBatch();
+    }
+
+    /**
+     * Test that the streaming queries return the same rows as the list-based finders,
+     * both for the whole history and for a date range.
+     */
+    @Test
+    void testStreamsMatchListFinders() {
+        Customer merchant = customerRepository.save(new Customer(null, "Merchant", "merchant@example.com"));
+        Customer other = customerRepository.save(new Customer(null, "Other", "other@example.com"));
+        List<Transaction> transactions = new ArrayList<>();
+        LocalDate start = LocalDate.of(2023, 1, 1);
+        for (int i = 0; i < 2_000; i++) {
+            transactions.add(new Transaction(null, start.plusDays(i % 365), 10.0 + i % 200, merchant));
+        }
+        transactions.add(new Transaction(null, start, 500.0, other));
+        transactionRepository.saveAll(transactions);
+
+        try (Stream<Transaction> stream = transactionRepository.streamByCustomerId(merchant.getId())) {
+            assertEquals(2_000, stream.count());
+        }
+
+        LocalDate from = LocalDate.of(2023, 3, 1);
+        LocalDate to = LocalDate.of(2023, 3, 31);
+        double expected = transactionRepository.findByCustomerIdAndDateBetween(merchant.getId(), from, to).stream()
+                .mapToDouble(Transaction::getAmount).sum();
+        try (Stream<Transaction> stream = transactionRepository.streamByCustomerIdAndDateBetween(merchant.getId(), from, to)) {
+            assertEquals(expected, stream.mapToDouble(Transaction::getAmount).sum());
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.customerrewardssystem.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchPointsCalculatorTest {
+    // The per-transaction method delegates to the scalar rule; its repositories are not used.
+    private final RewardsService rewardsService = new RewardsServiceImpl(null, null, null, null);
+
+    /**
+     * Test the tiers of the scalar rule at and around their boundaries, through calculatePointsForTransaction.
+     */
+    @Test
+    void testPerTransactionPointsFollowTiers() {
+        double[] amounts = {-10, 0, 50, 50.99, 51, 75, 100, 100.5, 101, 120, 200};
+        int[] expected = {0, 0, 0, 0, 1, 25, 50, 51, 52, 90, 250};
+        for (int i = 0; i < amounts.length; i++) {
+            assertEquals(expected[i], rewardsService.calculatePointsForTransaction(amounts[i]), "points for " + amounts[i]);
+            assertEquals(expected[i], BatchPointsCalculator.points(amounts[i]), "points for " + amounts[i]);
+        }
+    }
+
+    /**
+     * Test that the batch calculation matches calculatePointsForTransaction exactly, on both the vector
+     * and the scalar path, for tier boundaries, their neighbouring doubles, special values and random amounts,
+     * with a length that leaves a tail for the scalar loop.
+     */
+    @Test
+    void testBatchPointsMatchPerTransactionPoints() {
+        double[] edges = {0, -0.0, -1, 49.99, 50, Math.nextUp(50.0), Math.nextDown(50.0), 50.5, 51, 99.99, 100,
+                Math.nextUp(100.0), Math.nextDown(100.0), 100.5, 101, 120, 1e9, 1e12, Double.MAX_VALUE,
+                Double.MIN_VALUE, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        Random random = new Random(42);
+        double[] amounts = new double[1027];
+        for (int i = 0; i < amounts.length; i++) {
+            amounts[i] = i < edges.length ? edges[i] : random.nextDouble() * 400 - 50;
+        }
+
+        int[] batchPoints = BatchPointsCalculator.calculatePoints(amounts);
+        int[] scalarPoints = new int[amounts.length];
+        BatchPointsCalculator.calculatePointsScalar(amounts, scalarPoints, 0, amounts.length);
+        int[] vectorPoints = new int[amounts.length];
+        assertTrue(BatchPointsCalculator.isVectorized(), "tests run with the Vector API module");
+        VectorizedPointsCalculator.calculatePoints(amounts, vectorPoints, amounts.length);
+
+        for (int i = 0; i < amounts.length; i++) {
+            int expected = rewardsService.calculatePointsForTransaction(amounts[i]);
+            assertEquals(expected, batchPoints[i], "batch points for " + amounts[i]);
+            assertEquals(expected, scalarPoints[i], "scalar points for " + amounts[i]);
+            assertEquals(expected, vectorPoints[i], "vector points for " + amounts[i]);
+        }
+    }
+
+    /**
+     * Test that amounts in cents give the same points as passing cents / 100.0 to calculatePointsForTransaction.
+     */
+    @Test
+    void testBatchPointsFromCentsMatchPerTransactionPoints() {
+        Random random = new Random(7);
+        long[] amountsInCents = new long[515];
+        for (int i = 0; i < amountsInCents.length; i++) {
+            amountsInCents[i] = i < 400 ? i * 25L - 25 : random.nextInt(40_000) - 5_000;
+        }
+
+        int[] points = BatchPointsCalculator.calculatePointsFromCents(amountsInCents);
+        int[] scalarPoints = new int[amountsInCents.length];
+        BatchPointsCalculator.calculatePointsFromCentsScalar(amountsInCents, scalarPoints, 0, amountsInCents.length);
+
+        for (int i = 0; i < amountsInCents.length; i++) {
+            int expected = rewardsService.calculatePointsForTransaction(amountsInCents[i] / 100.0);
+            assertEquals(expected, points[i], "points for " + amountsInCents[i] + " cents");
+            assertEquals(expected, scalarPoints[i], "scalar points for " + amountsInCents[i] + " cents");
+        }
+    }
+
+    /**
+     * Test that only the requested prefix of a reused buffer is written, and that a length past the arrays is rejected.
+     */
+    @Test
+    void testPartialBatchLeavesRestOfBufferUntouched() {
+        double[] amounts = {120, 75, 30, 200, 150};
+        int[] points = {-1, -1, -1, -1, -1};
+
+        BatchPointsCalculator.calculatePoints(amounts, points, 3);
+
+        assertArrayEquals(new int[]{90, 25, 0, -1, -1}, points);
+        assertThrows(IndexOutOfBoundsException.class, () -> BatchPointsCalculator.calculatePoints(amounts, points, 6));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.customerrewardssystem.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RequestCoalescerTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RequestCoalescer requestCoalescer = new RequestCoalescer(meterRegistry);
+
+    /**
+     * Test that callers arriving while a computation for the same key is in flight
+     * share its result instead of running it again, and that the saved computations are counted.
+     */
+    @Test
+    void testConcurrentIdenticalRequestsShareOneComputation() throws Exception {
+        int callers = 8;
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger computations = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(executor.submit(() -> requestCoalescer.execute("customer-1", () -> {
+                computations.incrementAndGet();
+                leaderStarted.countDown();
+                await(release);
+                return "summary";
+            })));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> requestCoalescer.execute("customer-1", () -> {
+                    computations.incrementAndGet();
+                    return "duplicate";
+                })));
+            }
+            // Followers register as coalesced before they block on the shared future.
+            while (requestCoalescer.getCoalescedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("summary", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, computations.get());
+            assertEquals(1, requestCoalescer.getComputedCount());
+            assertEquals(callers - 1, requestCoalescer.getCoalescedCount());
+            assertEquals(callers - 1, meterRegistry.get("rewards.coalescing.requests").tag("outcome", "coalesced").counter().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Test that a failed computation is reported to every waiting caller, and that
+     * the key is released so later requests compute again.
+     */
+    @Test
+    void testFailureIsSharedAndKeyIsReleased() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(() -> requestCoalescer.execute("customer-2", () -> {
+                leaderStarted.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(leaderStarted.await(5, TimeUnit.SECONDS));
+            Future<Object> follower = executor.submit(() -> requestCoalescer.execute("customer-2", () -> "unused"));
+            while (requestCoalescer.getCoalescedCount() < 1) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("recomputed", requestCoalescer.execute("customer-2", () -> "recomputed"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,38 +1,54 @@
 package com.example.customerrewardssystem.service;
 
+import com.example.customerrewardssystem.aggregate.DailyPointsIndexCache;
+import com.example.customerrewardssystem.aggregate.OffHeapRewardsStore;
+import com.example.customerrewardssystem.aggregate.RewardsAggregateUpdater;
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
 import com.example.customerrewardssystem.model.Customer;
 import com.example.customerrewardssystem.model.CustomerRewardsSummary;
 import com.example.customerrewardssystem.model.Transaction;
 import com.example.customerrewardssystem.model.MonthlyReward;
 import com.example.customerrewardssystem.repository.CustomerRepository;
-import com.example.customerrewardssystem.repository.TransactionRepository;
+import com.example.customerrewardssystem.store.TransactionStore;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.MockitoAnnotations;
 import org.mockito.Mock;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.*;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class RewardsServiceTest {
     private RewardsServiceImpl rewardsService;
 
     @Mock
-    private TransactionRepository transactionRepository;
+    private TransactionStore transactionStore;
     @Mock
     private CustomerRepository customerRepository;
 
     /**
      * Set up the testing environment before each test.
      * Initializes mocks and creates an instance of RewardsServiceImpl with these mocks.
+     * The daily points index and off-heap store are disabled so every query goes to the transaction store.
      */
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        rewardsService = new RewardsServiceImpl(transactionRepository, customerRepository);
+        rewardsService = new RewardsServiceImpl(transactionStore, customerRepository,
+                new DailyPointsIndexCache(false, 0, Duration.ofMinutes(5)),
+                new OffHeapRewardsStore(false, 0, Duration.ofMinutes(5)));
     }
 
     /**
@@ -128,7 +144,7 @@ public class RewardsServiceTest {
         );
 
         // Mocking repository responses and executing the method under test
-        when(transactionRepository.findByCustomerId(customerId)).thenReturn(transactions);
+        when(transactionStore.streamByCustomerId(customerId)).thenReturn(transactions.stream());
         when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(alice));
 
         CustomerRewardsSummary summary = rewardsService.calculateRewardsForCustomer(customerId);
@@ -161,7 +177,7 @@ public class RewardsServiceTest {
         );
 
         // Mocking repository responses and executing the method under test
-        when(transactionRepository.findByCustomerAndDateBetween(bob, startDate, endDate)).thenReturn(transactions);
+        when(transactionStore.findByCustomerAndDateBetween(bob, startDate, endDate)).thenReturn(transactions);
 
         CustomerRewardsSummary summary = rewardsService.findByCustomerAndDateBetween(bob, startDate, endDate);
         // Verifying the rewards summary for the specified date range
@@ -191,7 +207,7 @@ public class RewardsServiceTest {
         );
 
         // Mocking repository responses and executing the method under test
-        when(transactionRepository.findByCustomerIdAndDateBetween(customerId, startDate, endDate)).thenReturn(transactions);
+        when(transactionStore.streamByCustomerIdAndDateBetween(customerId, startDate, endDate)).thenReturn(transactions.stream());
         when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(carl));
 
         CustomerRewardsSummary summary = rewardsService.findByCustomerIdAndDateBetween(customerId, startDate, endDate);
@@ -201,4 +217,159 @@ public class RewardsServiceTest {
         assertEquals(250, summary.getMonthlyRewards().get(0).getAmount());
         assertEquals(250, summary.getTotalRewards());
     }
+
+    /**
+     * Test date-range queries served from the daily points index.
+     * The customer's transactions are loaded once and later ranges are answered from the index;
+     * a newly created transaction drops the index, so it is rebuilt once with the new transaction.
+     */
+    @Test
+    void testFindByCustomerIdAndDateBetweenUsesDailyPointsIndex() {
+        DailyPointsIndexCache dailyPointsIndexCache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        OffHeapRewardsStore offHeapRewardsStore = new OffHeapRewardsStore(false, 0, Duration.ofMinutes(5));
+        rewardsService = new RewardsServiceImpl(transactionStore, customerRepository, dailyPointsIndexCache, offHeapRewardsStore);
+        RewardsAggregateUpdater updater = new RewardsAggregateUpdater(dailyPointsIndexCache, offHeapRewardsStore);
+        Long customerId = 3L;
+        Customer carl = new Customer(customerId, "Carl", "carl@example.com");
+        List<Transaction> transactions = Arrays.asList(
+                new Transaction(5L, LocalDate.of(2024, 3, 2), 120.0, carl),
+                new Transaction(4L, LocalDate.of(2024, 1, 15), 200.0, carl),
+                new Transaction(6L, LocalDate.of(2024, 2, 28), 40.0, carl)
+        );
+        Transaction created = new Transaction(7L, LocalDate.of(2023, 12, 31), 110.0, carl);
+        when(transactionStore.streamByCustomerId(customerId)).thenReturn(transactions.stream(),
+                Stream.concat(transactions.stream(), Stream.of(created)));
+        when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(carl));
+
+        CustomerRewardsSummary summary = rewardsService.findByCustomerIdAndDateBetween(customerId,
+                LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 31));
+        assertEquals(2, summary.getMonthlyRewards().size());
+        assertEquals("2024-02", summary.getMonthlyRewards().get(0).getMonth());
+        assertEquals(0, summary.getMonthlyRewards().get(0).getAmount());
+        assertEquals("2024-03", summary.getMonthlyRewards().get(1).getMonth());
+        assertEquals(90, summary.getMonthlyRewards().get(1).getAmount());
+        assertEquals(90, summary.getTotalRewards());
+        assertEquals(250, rewardsService.findByCustomerIdAndDateBetween(customerId,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 31)).getTotalRewards());
+        verify(transactionStore, times(1)).streamByCustomerId(customerId);
+
+        // A transaction dated before everything indexed so far
+        updater.onTransactionChanged(new TransactionChangedEvent(TransactionChangedEvent.Type.CREATED,
+                customerId, created.getDate(), created.getAmount()));
+
+        summary = rewardsService.findByCustomerIdAndDateBetween(customerId, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31));
+        assertEquals(4, summary.getMonthlyRewards().size());
+        assertEquals("2023-12", summary.getMonthlyRewards().get(0).getMonth());
+        assertEquals(70, summary.getMonthlyRewards().get(0).getAmount());
+        assertEquals(410, summary.getTotalRewards());
+
+        verify(transactionStore, times(2)).streamByCustomerId(customerId);
+        verify(transactionStore, never()).streamByCustomerIdAndDateBetween(customerId, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    /**
+     * Test that a transaction created inside a Spring transaction is added to the cached daily points index once
+     * it commits, without reloading the customer's history, and that a rolled-back one leaves the index unchanged.
+     */
+    @Test
+    void testCommittedCreateIsAddedToDailyPointsIndex() {
+        DailyPointsIndexCache dailyPointsIndexCache = new DailyPointsIndexCache(true, 1 << 20, Duration.ofMinutes(5));
+        OffHeapRewardsStore offHeapRewardsStore = new OffHeapRewardsStore(false, 0, Duration.ofMinutes(5));
+        rewardsService = new RewardsServiceImpl(transactionStore, customerRepository, dailyPointsIndexCache, offHeapRewardsStore);
+        RewardsAggregateUpdater updater = new RewardsAggregateUpdater(dailyPointsIndexCache, offHeapRewardsStore);
+        Long customerId = 3L;
+        Customer carl = new Customer(customerId, "Carl", "carl@example.com");
+        LocalDate startDate = LocalDate.of(2024, 1, 1);
+        LocalDate endDate = LocalDate.of(2024, 12, 31);
+        when(transactionStore.streamByCustomerId(customerId))
+                .thenReturn(Stream.of(new Transaction(4L, LocalDate.of(2024, 1, 15), 120.0, carl)));
+        when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(carl));
+        assertEquals(90, rewardsService.findByCustomerIdAndDateBetween(customerId, startDate, endDate).getTotalRewards());
+
+        TransactionChangedEvent created = new TransactionChangedEvent(TransactionChangedEvent.Type.CREATED,
+                customerId, LocalDate.of(2024, 6, 1), 200.0);
+        completeTransaction(() -> updater.onTransactionChanged(created), TransactionSynchronization.STATUS_COMMITTED);
+        completeTransaction(() -> updater.onTransactionChanged(created), TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        CustomerRewardsSummary summary = rewardsService.findByCustomerIdAndDateBetween(customerId, startDate, endDate);
+        assertEquals(340, summary.getTotalRewards());
+        assertEquals("2024-06", summary.getMonthlyRewards().get(1).getMonth());
+        verify(transactionStore, times(1)).streamByCustomerId(customerId);
+    }
+
+    /**
+     * Test that customer rewards are served from the off-heap store after the first call,
+     * and that a newly created transaction drops the stored record, so it is rehydrated once with the new transaction.
+     */
+    @Test
+    void testCalculateRewardsForCustomerUsesOffHeapStore() {
+        DailyPointsIndexCache dailyPointsIndexCache = new DailyPointsIndexCache(false, 0, Duration.ofMinutes(5));
+        OffHeapRewardsStore offHeapRewardsStore = new OffHeapRewardsStore(true, 64, Duration.ofMinutes(5));
+        rewardsService = new RewardsServiceImpl(transactionStore, customerRepository, dailyPointsIndexCache, offHeapRewardsStore);
+        RewardsAggregateUpdater updater = new RewardsAggregateUpdater(dailyPointsIndexCache, offHeapRewardsStore);
+        Long customerId = 1L;
+        Customer alice = new Customer(customerId, "Alice", "alice@example.com");
+        List<Transaction> transactions = List.of(
+                new Transaction(1L, LocalDate.of(2024, 1, 10), 120.0, alice),
+                new Transaction(2L, LocalDate.of(2024, 2, 15), 100.0, alice)
+        );
+        Transaction created = new Transaction(3L, LocalDate.of(2024, 2, 20), 130.0, alice);
+        when(transactionStore.streamByCustomerId(customerId)).thenReturn(transactions.stream(),
+                Stream.concat(transactions.stream(), Stream.of(created)));
+        when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(alice));
+
+        assertEquals(140, rewardsService.calculateRewardsForCustomer(customerId).getTotalRewards());
+        assertEquals(140, rewardsService.calculateRewardsForCustomer(customerId).getTotalRewards());
+        verify(transactionStore, times(1)).streamByCustomerId(customerId);
+
+        updater.onTransactionChanged(new TransactionChangedEvent(TransactionChangedEvent.Type.CREATED,
+                customerId, created.getDate(), created.getAmount()));
+        CustomerRewardsSummary summary = rewardsService.calculateRewardsForCustomer(customerId);
+        assertEquals(250, summary.getTotalRewards());
+        assertEquals(250, rewardsService.calculateRewardsForCustomer(customerId).getTotalRewards());
+        verify(transactionStore, times(2)).streamByCustomerId(customerId);
+    }
+
+    /**
+     * Test that customer rewards list months in chronological order both when calculated from transactions
+     * and when served from the off-heap store.
+     */
+    @Test
+    void testCalculateRewardsForCustomerListsMonthsInOrder() {
+        rewardsService = new RewardsServiceImpl(transactionStore, customerRepository,
+                new DailyPointsIndexCache(false, 0, Duration.ofMinutes(5)),
+                new OffHeapRewardsStore(true, 64, Duration.ofMinutes(5)));
+        Long customerId = 2L;
+        Customer bob = new Customer(customerId, "Bob", "bob@example.com");
+        List<Transaction> transactions = new ArrayList<>();
+        for (int month = 12; month >= 1; month--) {
+            transactions.add(new Transaction((long) month, LocalDate.of(2023, month, 5), 120.0, bob));
+            transactions.add(new Transaction(100L + month, LocalDate.of(2024, month, 5), 120.0, bob));
+        }
+        when(transactionStore.streamByCustomerId(customerId)).thenReturn(transactions.stream());
+        when(customerRepository.findCustomerById(customerId)).thenReturn(Optional.of(bob));
+
+        List<String> expected = new ArrayList<>();
+        for (YearMonth month = YearMonth.of(2023, 1); !month.isAfter(YearMonth.of(2024, 12)); month = month.plusMonths(1)) {
+            expected.add(month.toString());
+        }
+        List<String> calculated = rewardsService.calculateRewardsForCustomer(customerId).getMonthlyRewards().stream()
+                .map(MonthlyReward::getMonth).toList();
+        List<String> stored = rewardsService.calculateRewardsForCustomer(customerId).getMonthlyRewards().stream()
+                .map(MonthlyReward::getMonth).toList();
+        assertEquals(expected, calculated);
+        assertEquals(expected, stored);
+        verify(transactionStore, times(1)).streamByCustomerId(customerId);
+    }
+
+    // Runs the work as if inside a Spring transaction that then completes with the given status.
+    private static void completeTransaction(Runnable work, int status) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            work.run();
+            TransactionSynchronizationUtils.invokeAfterCompletion(TransactionSynchronizationManager.getSynchronizations(), status);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 }
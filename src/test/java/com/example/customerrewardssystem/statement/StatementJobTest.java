@@ -0,0 +1,156 @@
+package com.example.customerrewardssystem.statement;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.CustomerRewardsSummary;
+import com.example.customerrewardssystem.model.MonthlyReward;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.repository.TransactionRangeScanRepository;
+import com.example.customerrewardssystem.service.RewardsService;
+import com.example.customerrewardssystem.store.TransactionStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+public class StatementJobTest {
+    @Autowired
+    private TransactionRangeScanRepository transactionRangeScanRepository;
+    @Autowired
+    private TransactionStore transactionStore;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @TempDir
+    private Path outputDirectory;
+
+    /**
+     * Test that the statements written with one customer per partition, and chunks smaller than a customer's
+     * transactions, match the rewards service for the same three months.
+     */
+    @Test
+    void testStatementsMatchRewardsService() throws IOException {
+        YearMonth month = YearMonth.now();
+        StatementJobReport report = job(1).run(month, outputDirectory, StatementFormat.NDJSON);
+
+        List<Customer> customers = customerRepository.findAll();
+        assertEquals(customers.size(), report.customers());
+        assertEquals(0, report.skippedPartitions());
+        assertTrue(report.transactions() > 0);
+
+        Map<Long, JsonNode> statements = new HashMap<>();
+        for (Path file : partFiles(month)) {
+            for (String line : readLines(file)) {
+                JsonNode statement = objectMapper.readTree(line);
+                statements.put(statement.get("customerId").asLong(), statement);
+            }
+        }
+        for (Customer customer : customers) {
+            CustomerRewardsSummary expected = rewardsService.findByCustomerIdAndDateBetween(customer.getId(),
+                    month.minusMonths(2).atDay(1), month.atEndOfMonth());
+            JsonNode statement = statements.get(customer.getId());
+            assertEquals(customer.getName(), statement.get("customerName").asText());
+            assertEquals(expected.getTotalRewards(), statement.get("totalRewards").asInt());
+            Map<String, Integer> monthlyRewards = new HashMap<>();
+            statement.get("monthlyRewards").forEach(reward -> monthlyRewards.put(reward.get("month").asText(), reward.get("amount").asInt()));
+            Map<String, Integer> expectedMonthlyRewards = new HashMap<>();
+            for (MonthlyReward reward : expected.getMonthlyRewards()) {
+                expectedMonthlyRewards.put(reward.getMonth(), reward.getAmount());
+            }
+            assertEquals(expectedMonthlyRewards, monthlyRewards);
+        }
+    }
+
+    /**
+     * Test that a run restarted after losing a partition redoes only that partition, and that a restart with
+     * different parameters is refused.
+     */
+    @Test
+    void testRestartSkipsCheckpointedPartitions() throws IOException {
+        YearMonth month = YearMonth.now();
+        StatementJobReport first = job(1).run(month, outputDirectory, StatementFormat.NDJSON);
+        assertTrue(first.partitions() >= 2);
+
+        // Simulate a crash before the last partition was recorded.
+        Path checkpoint = outputDirectory.resolve(month.toString()).resolve("checkpoint");
+        List<String> lines = Files.readAllLines(checkpoint);
+        String last = lines.stream().filter(line -> line.startsWith("partition ")).max(String::compareTo).orElseThrow();
+        lines.remove(last);
+        Files.write(checkpoint, lines);
+
+        StatementJobReport restarted = job(1).run(month, outputDirectory, StatementFormat.NDJSON);
+        assertEquals(first.partitions() - 1, restarted.skippedPartitions());
+        assertEquals(1, restarted.customers());
+        assertEquals(first.customers(), partFiles(month).stream().mapToLong(file -> readLines(file).size()).sum());
+
+        assertThrows(IllegalStateException.class, () -> job(2).run(month, outputDirectory, StatementFormat.NDJSON));
+    }
+
+    /**
+     * Test the CSV layout: a column per month of the window, and the total.
+     */
+    @Test
+    void testCsvStatements() throws IOException {
+        YearMonth month = YearMonth.now();
+        job(1000).run(month, outputDirectory, StatementFormat.CSV);
+        Customer alice = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow();
+
+        List<String> lines = readLines(partFiles(month).get(0));
+        assertEquals("customer_id,customer_name," + month.minusMonths(2) + "," + month.minusMonths(1) + "," + month
+                + ",total_rewards", lines.get(0));
+        assertTrue(lines.contains(alice.getId() + ",Alice,365,140,290,795"), lines.toString());
+    }
+
+    /**
+     * Test that a window of no months, or any other setting below one, is rejected when the job is created
+     * rather than failing on the first run.
+     */
+    @Test
+    void testRejectsSettingsBelowOne() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatementJob(transactionRangeScanRepository, transactionStore, objectMapper, 0, 1000, 2, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatementJob(transactionRangeScanRepository, transactionStore, objectMapper, -1, 1000, 2, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> new StatementJob(transactionRangeScanRepository, transactionStore, objectMapper, 3, 0, 2, 2));
+    }
+
+    private StatementJob job(int partitionSize) {
+        return new StatementJob(transactionRangeScanRepository, transactionStore, objectMapper, 3, partitionSize, 2, 2);
+    }
+
+    private List<Path> partFiles(YearMonth month) throws IOException {
+        try (var files = Files.list(outputDirectory.resolve(month.toString()))) {
+            return files.filter(file -> file.getFileName().toString().startsWith("part-")).sorted().toList();
+        }
+    }
+
+    private static List<String> readLines(Path file) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            return reader.lines().toList();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import com.example.customerrewardssystem.repository.CustomerRepository;
+import com.example.customerrewardssystem.service.RewardsService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {"rewards.storage.engine=append-only", "rewards.storage.append-only.snapshot-interval=0s"})
+public class AppendOnlyTransactionStoreEngineTest {
+    @Autowired
+    private TransactionStore transactionStore;
+    @Autowired
+    private RewardsService rewardsService;
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @DynamicPropertySource
+    static void storeDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("transactions").toString();
+        registry.add("rewards.storage.append-only.directory", () -> directory);
+    }
+
+    /**
+     * Test that the append-only engine replaces JPA, is seeded with the sample transactions, and that a saved
+     * transaction reaches the cached rewards through the published change event.
+     */
+    @Test
+    void testRewardsServedFromAppendOnlyStore() {
+        assertInstanceOf(AppendOnlyTransactionStore.class, transactionStore);
+        Customer alice = customerRepository.findCustomerByEmail("alice@example.com").orElseThrow();
+        LocalDate endDate = LocalDate.now();
+        LocalDate startDate = endDate.minusYears(1);
+        assertEquals(795, rewardsService.calculateRewardsForCustomer(alice.getId()).getTotalRewards());
+        int before = rewardsService.findByCustomerIdAndDateBetween(alice.getId(), startDate, endDate).getTotalRewards();
+
+        Transaction transaction = transactionStore.save(new Transaction(null, endDate, 120.0, alice));
+        try {
+            assertEquals(before + 90, rewardsService.findByCustomerIdAndDateBetween(alice.getId(), startDate, endDate).getTotalRewards());
+            assertEquals(795 + 90, rewardsService.calculateRewardsForCustomer(alice.getId()).getTotalRewards());
+        } finally {
+            transactionStore.delete(transaction);
+        }
+        assertEquals(795, rewardsService.calculateRewardsForCustomer(alice.getId()).getTotalRewards());
+    }
+}
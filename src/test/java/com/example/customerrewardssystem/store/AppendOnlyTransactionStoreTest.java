@@ -0,0 +1,287 @@
+package com.example.customerrewardssystem.store;
+
+import com.example.customerrewardssystem.event.TransactionChangedEvent;
+import com.example.customerrewardssystem.model.Customer;
+import com.example.customerrewardssystem.model.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class AppendOnlyTransactionStoreTest {
+    private static final LocalDate DAY = LocalDate.of(2024, 3, 15);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final List<AppendOnlyTransactionStore> stores = new ArrayList<>();
+    private final Customer alice = new Customer(1L, "Alice", "alice@example.com");
+    private final Customer bob = new Customer(2L, "Bob", "bob@example.com");
+
+    @TempDir
+    private Path directory;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (AppendOnlyTransactionStore store : stores) {
+            store.close();
+        }
+    }
+
+    /**
+     * Test that date range queries find transactions saved out of date order, with "Between" inclusive and
+     * "After" and "Before" exclusive, as in TransactionRepository.
+     */
+    @Test
+    void testDateRangeQueries() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        store.save(new Transaction(null, DAY.plusDays(2), 30.0, alice));
+        store.save(new Transaction(null, DAY, 10.0, alice));
+        store.save(new Transaction(null, DAY.plusDays(1), 20.0, alice));
+        store.save(new Transaction(null, DAY.minusDays(1), 5.0, alice));
+        store.save(new Transaction(null, DAY, 100.0, bob));
+
+        assertEquals(List.of(5.0, 10.0, 20.0, 30.0), amounts(store.findByCustomerId(1L)));
+        assertEquals(List.of(10.0, 20.0), amounts(store.findByCustomerIdAndDateBetween(1L, DAY, DAY.plusDays(1))));
+        assertEquals(List.of(20.0, 30.0), amounts(store.findByCustomerIdAndDateAfter(1L, DAY)));
+        assertEquals(List.of(5.0), amounts(store.findByCustomerIdAndDateBefore(1L, DAY)));
+        assertEquals(List.of(10.0, 100.0), amounts(store.findByDateBetween(DAY, DAY)));
+        assertEquals(65.0, store.sumAmountForCustomer(alice));
+        assertEquals(15.0, store.sumMonthlyAmountForCustomer(alice, DAY.minusDays(1), DAY));
+        assertNull(store.sumMonthlyAmountForCustomer(bob, DAY.plusDays(1), DAY.plusDays(9)));
+        assertTrue(store.findByCustomerId(3L).isEmpty());
+        assertEquals(5, store.count());
+        try (Stream<Transaction> transactions = store.streamByCustomerIdAndDateBetween(1L, DAY.minusDays(1), DAY)) {
+            assertEquals(List.of(5.0, 10.0), amounts(transactions.toList()));
+        }
+    }
+
+    /**
+     * Test that a restart without a snapshot, as after a crash, replays the WAL, and that ids keep increasing.
+     */
+    @Test
+    void testRecoversFromWal() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        Transaction first = store.save(new Transaction(null, DAY, 120.0, alice));
+        store.save(new Transaction(null, DAY.plusDays(1), 80.0, alice));
+        store.delete(first);
+
+        AppendOnlyTransactionStore recovered = open();
+        assertEquals(List.of(80.0), amounts(recovered.findByCustomerId(1L)));
+        assertTrue(recovered.save(new Transaction(null, DAY, 1.0, bob)).getId() > 2);
+    }
+
+    /**
+     * Test that a restart loads the snapshot, replays only the WAL written after it, and leaves no older files.
+     */
+    @Test
+    void testRecoversFromSnapshotAndWal() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        store.save(new Transaction(null, DAY, 120.0, alice));
+        store.save(new Transaction(null, DAY, 75.0, bob));
+        store.snapshot();
+        store.save(new Transaction(null, DAY.minusDays(3), 60.0, alice));
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(List.of("snapshot-1.bin", "wal-1.log"),
+                    files.map(file -> file.getFileName().toString()).sorted().toList());
+        }
+        AppendOnlyTransactionStore recovered = open();
+        assertEquals(List.of(60.0, 120.0), amounts(recovered.findByCustomerId(1L)));
+        assertEquals(List.of(75.0), amounts(recovered.findByCustomerId(2L)));
+    }
+
+    /**
+     * Test that after a crash between WAL rotation and the snapshot, the store survives two restarts: the first
+     * restart must not delete the snapshot and WAL files it recovered from.
+     */
+    @Test
+    void testRestartsTwiceAfterRotationWithoutSnapshot() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        store.save(new Transaction(null, DAY, 120.0, alice));
+        store.snapshot();
+        store.save(new Transaction(null, DAY, 75.0, bob));
+        try (TransactionWal rotated = new TransactionWal(directory.resolve("wal-2.log"))) {
+            rotated.begin();
+            rotated.append(TransactionWal.APPEND, 3, 1, (int) DAY.toEpochDay(), 60.0);
+            rotated.commit(true);
+        }
+
+        assertEquals(3, open().count());
+        AppendOnlyTransactionStore restarted = open();
+        assertEquals(3, restarted.count());
+        assertEquals(List.of(120.0, 60.0), amounts(restarted.findByCustomerId(1L)));
+    }
+
+    /**
+     * Test that a batch failing after more records than the WAL buffer holds leaves nothing behind, in memory or
+     * after a restart, and that the next batch is still written.
+     */
+    @Test
+    void testFailedBatchIsRolledBack() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            batch.add(new Transaction(null, DAY, 10.0, alice));
+        }
+        // Beyond the int epoch-day range, so the batch fails after its first records were written.
+        batch.set(600, new Transaction(null, LocalDate.MAX, 10.0, alice));
+        assertThrows(ArithmeticException.class, () -> store.saveAll(batch));
+        assertEquals(0, Files.size(directory.resolve("wal-0.log")));
+        assertEquals(0, store.count());
+        assertNull(batch.get(0).getId());
+
+        store.save(new Transaction(null, DAY, 20.0, bob));
+        AppendOnlyTransactionStore restarted = open();
+        assertEquals(1, restarted.count());
+        assertEquals(1L, restarted.findByCustomerId(2L).get(0).getId());
+    }
+
+    /**
+     * Test that a half-written record at the end of the WAL is dropped, and that records appended after
+     * recovery survive the next restart.
+     */
+    @Test
+    void testIgnoresTornWalRecord() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        store.save(new Transaction(null, DAY, 120.0, alice));
+        Files.write(directory.resolve("wal-0.log"), new byte[TransactionWal.RECORD_SIZE - 5], StandardOpenOption.APPEND);
+
+        AppendOnlyTransactionStore recovered = open();
+        recovered.save(new Transaction(null, DAY, 50.0, alice));
+
+        assertEquals(List.of(120.0, 50.0), amounts(open().findByCustomerId(1L)));
+    }
+
+    /**
+     * Test that a batch cut off before its commit record, as by a crash while it was written, is dropped as a whole
+     * while the batches before it survive.
+     */
+    @Test
+    void testDropsBatchWithoutCommitRecord() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        store.saveAll(List.of(new Transaction(null, DAY, 10.0, alice), new Transaction(null, DAY, 20.0, alice),
+                new Transaction(null, DAY, 30.0, bob)));
+        store.saveAll(List.of(new Transaction(null, DAY, 40.0, alice), new Transaction(null, DAY, 50.0, alice),
+                new Transaction(null, DAY, 60.0, bob)));
+        truncateWal(2 * TransactionWal.RECORD_SIZE);
+
+        AppendOnlyTransactionStore recovered = open();
+        assertEquals(3, recovered.count());
+        assertEquals(List.of(10.0, 20.0), amounts(recovered.findByCustomerId(1L)));
+        assertEquals(List.of(30.0), amounts(recovered.findByCustomerId(2L)));
+    }
+
+    /**
+     * Test that an update cut off between its delete and append records keeps the transaction it replaces.
+     */
+    @Test
+    void testDropsUpdateWithoutCommitRecord() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        Transaction transaction = store.save(new Transaction(null, DAY, 120.0, alice));
+        transaction.setAmount(90.0);
+        store.save(transaction);
+        truncateWal(2 * TransactionWal.RECORD_SIZE);
+
+        AppendOnlyTransactionStore recovered = open();
+        assertEquals(List.of(120.0), amounts(recovered.findByCustomerId(1L)));
+        recovered.save(new Transaction(null, DAY, 50.0, alice));
+        assertEquals(List.of(120.0, 50.0), amounts(open().findByCustomerId(1L)));
+    }
+
+    /**
+     * Test that saving a stored id replaces the transaction and publishes an update, and that deletes are published.
+     */
+    @Test
+    void testUpdatesAndDeletesPublishEvents() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        Transaction transaction = store.save(new Transaction(null, DAY, 120.0, alice));
+        transaction.setAmount(90.0);
+        store.save(transaction);
+        assertEquals(List.of(90.0), amounts(store.findByCustomer(alice)));
+        store.delete(transaction);
+        assertTrue(store.findByCustomer(alice).isEmpty());
+
+        ArgumentCaptor<TransactionChangedEvent> events = ArgumentCaptor.forClass(TransactionChangedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(events.capture());
+        assertEquals(List.of(TransactionChangedEvent.Type.CREATED, TransactionChangedEvent.Type.UPDATED,
+                TransactionChangedEvent.Type.DELETED), events.getAllValues().stream().map(TransactionChangedEvent::getType).toList());
+        assertEquals(90.0, events.getAllValues().get(1).getAmount());
+    }
+
+    /**
+     * Test that after a restart, transactions loaded from the snapshot and from the WAL can still be moved to another
+     * customer and deleted.
+     */
+    @Test
+    void testUpdatesAndDeletesAfterRestart() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        Transaction snapshotted = store.save(new Transaction(null, DAY, 120.0, alice));
+        store.snapshot();
+        Transaction logged = store.save(new Transaction(null, DAY.plusDays(1), 80.0, alice));
+
+        AppendOnlyTransactionStore restarted = open();
+        restarted.save(new Transaction(snapshotted.getId(), DAY.minusDays(1), 90.0, bob));
+        restarted.delete(new Transaction(logged.getId(), logged.getDate(), logged.getAmount(), null));
+        assertTrue(restarted.findByCustomerId(1L).isEmpty());
+        assertEquals(List.of(90.0), amounts(restarted.findByCustomerId(2L)));
+
+        AppendOnlyTransactionStore recovered = open();
+        assertEquals(1, recovered.count());
+        assertEquals(List.of(90.0), amounts(recovered.findByCustomerId(2L)));
+    }
+
+    /**
+     * Test that a range scan returns the customers in the id range in chunks, ordered by customer id.
+     */
+    @Test
+    void testScanTransactionsInChunks() throws IOException {
+        AppendOnlyTransactionStore store = open();
+        for (long customerId = 1; customerId <= 4; customerId++) {
+            Customer customer = new Customer(customerId, null, null);
+            store.save(new Transaction(null, DAY, (double) customerId, customer));
+            store.save(new Transaction(null, DAY.plusMonths(2), 1000.0, customer));
+        }
+
+        List<Long> customerIds = new ArrayList<>();
+        List<Integer> chunkSizes = new ArrayList<>();
+        long total = store.scanTransactions(2, 4, DAY, DAY.plusMonths(1), 1, chunk -> {
+            chunkSizes.add(chunk.size());
+            customerIds.add(chunk.customerIds()[0]);
+        });
+        assertEquals(2, total);
+        assertEquals(List.of(2L, 3L), customerIds);
+        assertEquals(List.of(1, 1), chunkSizes);
+    }
+
+    private AppendOnlyTransactionStore open() throws IOException {
+        AppendOnlyTransactionStore store = new AppendOnlyTransactionStore(eventPublisher, directory, true, Duration.ZERO);
+        stores.add(store);
+        return store;
+    }
+
+    private void truncateWal(long bytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve("wal-0.log"), StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - bytes);
+        }
+    }
+
+    private static List<Double> amounts(List<Transaction> transactions) {
+        return transactions.stream().map(Transaction::getAmount).toList();
+    }
+}